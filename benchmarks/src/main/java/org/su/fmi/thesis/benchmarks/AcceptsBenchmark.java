@@ -0,0 +1,74 @@
+package org.su.fmi.thesis.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.su.fmi.thesis.automaton.Acceptor;
+import org.su.fmi.thesis.automaton.Automaton;
+import org.su.fmi.thesis.automaton.LazyDeterminization;
+
+import java.util.concurrent.TimeUnit;
+
+/***
+ * Classification of a fixed set of random words by the different acceptors of the same language.
+ * The score is the time for all numberOfWords words.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AcceptsBenchmark {
+
+    @Param({"100", "300"})
+    public int numberOfClusters;
+
+    @Param({"10000"})
+    public int numberOfWords;
+
+    private Automaton dfa;
+    private Acceptor compiled;
+    private Acceptor lazy;
+    private int[][] words;
+
+    @Setup
+    public void generate() {
+        Automaton nfa = RandomAutomata.clusteredWords(666L, 20000, 20, 30, numberOfClusters);
+        dfa = nfa.determinize();
+        compiled = dfa.compile();
+        lazy = new LazyDeterminization(nfa);
+        words = RandomAutomata.words(667L, numberOfWords, 20, 30);
+    }
+
+    @Benchmark
+    public int automaton() {
+        return count(dfa);
+    }
+
+    @Benchmark
+    public int compiled() {
+        return count(compiled);
+    }
+
+    @Benchmark
+    public int lazy() {
+        return count(lazy);
+    }
+
+    private int count(Acceptor a) {
+        int accepted = 0;
+        for (int[] word : words) {
+            accepted += a.accepts(word, 0, word.length);
+        }
+        return accepted;
+    }
+}
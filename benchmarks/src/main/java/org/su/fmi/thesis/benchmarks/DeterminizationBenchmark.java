@@ -0,0 +1,52 @@
+package org.su.fmi.thesis.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.su.fmi.thesis.automaton.Automaton;
+
+import java.util.concurrent.TimeUnit;
+
+/***
+ * Scaling of the parallel subset construction with the number of threads,
+ * compared with the sequential Determinization on the same automaton.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DeterminizationBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int numberOfThreads;
+
+    @Param({"300", "500"})
+    public int numberOfClusters;
+
+    private Automaton a;
+
+    @Setup
+    public void generate() {
+        a = RandomAutomata.clusteredWords(666L, 20000, 20, 30, numberOfClusters);
+    }
+
+    @Benchmark
+    public Automaton sequential() {
+        return a.determinize();
+    }
+
+    @Benchmark
+    public Automaton parallel() {
+        return a.determinize(numberOfThreads);
+    }
+}
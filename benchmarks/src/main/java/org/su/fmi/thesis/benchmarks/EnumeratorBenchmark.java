@@ -0,0 +1,120 @@
+package org.su.fmi.thesis.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.su.fmi.thesis.automaton.utils.Enumerable;
+import org.su.fmi.thesis.automaton.utils.Enumerator;
+import org.su.fmi.thesis.automaton.utils.FNV1A;
+import org.su.fmi.thesis.automaton.utils.IntSequence;
+import org.su.fmi.thesis.automaton.utils.LinearProbingEnumerator;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/***
+ * Enumerator.add of numberOfKeys distinct random keys into an empty enumerator (including the resizes)
+ * and Enumerator.get of the same keys from a full one, compared with LinearProbingEnumerator.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EnumeratorBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int numberOfKeys;
+
+    private int[] keys;
+    private Enumerator<Integer> full;
+    private LinearProbingEnumerator<Integer> fullLinearProbing;
+
+    @Setup
+    public void generate() {
+        Random random = new Random(666L);
+        keys = new int[numberOfKeys];
+        for (int i = 0; i < numberOfKeys; i++) {
+            keys[i] = random.nextInt();
+        }
+        full = new Enumerator<>(new Keys());
+        fullLinearProbing = new LinearProbingEnumerator<>(new Keys());
+        for (int key : keys) {
+            full.add(key);
+            fullLinearProbing.add(key);
+        }
+    }
+
+    @Benchmark
+    public Enumerator<Integer> add() {
+        Enumerator<Integer> num = new Enumerator<>(new Keys());
+        for (int key : keys) {
+            num.add(key);
+        }
+        return num;
+    }
+
+    @Benchmark
+    public long get() {
+        long sum = 0;
+        for (int key : keys) {
+            sum += full.get(key);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public LinearProbingEnumerator<Integer> addLinearProbing() {
+        LinearProbingEnumerator<Integer> num = new LinearProbingEnumerator<>(new Keys());
+        for (int key : keys) {
+            num.add(key);
+        }
+        return num;
+    }
+
+    @Benchmark
+    public long getLinearProbing() {
+        long sum = 0;
+        for (int key : keys) {
+            sum += fullLinearProbing.get(key);
+        }
+        return sum;
+    }
+
+    /***
+     * Int keys stored in insertion order.
+     */
+    private static class Keys implements Enumerable<Integer> {
+        private IntSequence keys = new IntSequence();
+
+        @Override
+        public boolean equal(Integer key, int index) {
+            return keys.seq[index] == key;
+        }
+
+        @Override
+        public long code(Integer key) {
+            return FNV1A.code(key);
+        }
+
+        @Override
+        public long codeByIndex(int index) {
+            return FNV1A.code(keys.seq[index]);
+        }
+
+        @Override
+        public int newObject(Integer key) {
+            keys.add(key);
+            return keys.length - 1;
+        }
+    }
+}
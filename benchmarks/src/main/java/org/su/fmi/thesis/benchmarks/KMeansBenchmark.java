@@ -0,0 +1,71 @@
+package org.su.fmi.thesis.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.su.fmi.thesis.clustering.Assignment;
+import org.su.fmi.thesis.clustering.Initialization;
+import org.su.fmi.thesis.clustering.KMeans;
+import org.su.fmi.thesis.clustering.MiniBatchKMeans;
+import org.su.fmi.thesis.clustering.distances.EuclideanDistance;
+import org.su.fmi.thesis.clustering.model.Vectors;
+
+import java.util.concurrent.TimeUnit;
+
+/***
+ * KMeans.fit with the euclidean distance on random gaussian blobs, from each initialization to convergence,
+ * and MiniBatchKMeans.fit with batches of 1024 vectors on the same data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class KMeansBenchmark {
+
+    @Param({"10000", "50000"})
+    public int numberOfVectors;
+
+    @Param({"16", "64"})
+    public int numberOfClusters;
+
+    @Param({"32"})
+    public int dimension;
+
+    @Param({"FULL", "HAMERLY"})
+    public Assignment assignment;
+
+    @Param({"FARTHEST_POINT", "KMEANS_PLUSPLUS", "KMEANS_PARALLEL"})
+    public Initialization initialization;
+
+    private Vectors data;
+
+    @Setup
+    public void generate() {
+        data = RandomVectors.blobs(666L, numberOfVectors, dimension, numberOfClusters);
+    }
+
+    @Benchmark
+    public int[] fit() {
+        KMeans kMeans = new KMeans(data, numberOfClusters, 666L, new EuclideanDistance(), assignment,
+                initialization);
+        kMeans.fit();
+        return kMeans.clusters;
+    }
+
+    @Benchmark
+    public int[] fitMiniBatch() {
+        MiniBatchKMeans kMeans = new MiniBatchKMeans(data, numberOfClusters, 666L, new EuclideanDistance(), 1024);
+        kMeans.fit();
+        return kMeans.clusters;
+    }
+}
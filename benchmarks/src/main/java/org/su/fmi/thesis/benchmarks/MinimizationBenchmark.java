@@ -0,0 +1,59 @@
+package org.su.fmi.thesis.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.su.fmi.thesis.automaton.Automaton;
+import org.su.fmi.thesis.automaton.MinimizationAlgorithm;
+
+import java.util.concurrent.TimeUnit;
+
+/***
+ * The minimization algorithms on the trie of random words.
+ * determinizeAndMinimize starts from the separate paths of the words, i.e. it measures the whole pipeline
+ * from a nondeterministic automaton, which is the fair comparison for Brzozowski's algorithm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MinimizationBenchmark {
+
+    @Param({"CLASS_SPLITTING", "HOPCROFT", "BRZOZOWSKI"})
+    public MinimizationAlgorithm algorithm;
+
+    @Param({"10000", "100000"})
+    public int numberOfWords;
+
+    private Automaton nfa;
+    private Automaton dfa;
+
+    @Setup
+    public void generate() {
+        nfa = RandomAutomata.paths(666L, numberOfWords, 20, 4);
+        dfa = nfa.determinize();
+    }
+
+    @Benchmark
+    public Automaton minimize() {
+        return dfa.minimize(algorithm);
+    }
+
+    @Benchmark
+    public Automaton determinizeAndMinimize() {
+        if (algorithm == MinimizationAlgorithm.BRZOZOWSKI) {
+            return nfa.minimize(algorithm);
+        }
+        return nfa.determinize().minimize(algorithm);
+    }
+}
@@ -0,0 +1,60 @@
+package org.su.fmi.thesis.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.su.fmi.thesis.automaton.Automaton;
+
+import java.util.concurrent.TimeUnit;
+
+/***
+ * The regular operations on random sorted automata. Each of them builds a new automaton and sorts it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OperationsBenchmark {
+
+    @Param({"10000", "100000"})
+    public int numberOfStates;
+
+    private Automaton a1;
+    private Automaton a2;
+
+    @Setup
+    public void generate() {
+        a1 = RandomAutomata.deterministic(666L, numberOfStates, 16);
+        a2 = RandomAutomata.deterministic(667L, numberOfStates, 16);
+    }
+
+    @Benchmark
+    public Automaton reverse() {
+        return a1.reverse();
+    }
+
+    @Benchmark
+    public Automaton concat() {
+        return Automaton.concat(a1, a2);
+    }
+
+    @Benchmark
+    public Automaton union() {
+        return Automaton.union(a1, a2);
+    }
+
+    @Benchmark
+    public Automaton star() {
+        return a1.star();
+    }
+}
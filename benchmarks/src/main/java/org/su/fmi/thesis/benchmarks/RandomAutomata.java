@@ -0,0 +1,142 @@
+package org.su.fmi.thesis.benchmarks;
+
+import org.su.fmi.thesis.automaton.Automaton;
+
+import java.util.Random;
+
+/***
+ * Seeded generators of random automata for the benchmarks.
+ */
+public class RandomAutomata {
+
+    /***
+     * Random automaton with the transitions added in random order, i.e. the result is not sorted.
+     */
+    public static Automaton unsorted(long seed, int numberOfStates, int numberOfLabels, int numberOfTransitions) {
+        Random random = new Random(seed);
+        Automaton a = new Automaton();
+        a.addInitialState(0);
+        a.addState(numberOfStates - 1);
+        for (int q = 0; q < numberOfStates; q++) {
+            a.setStateFinality(q, random.nextInt(3) == 0 ? 1 : 0);
+        }
+        for (int i = 0; i < numberOfTransitions; i++) {
+            a.addTransition(random.nextInt(numberOfStates), random.nextInt(numberOfLabels), random.nextInt(numberOfStates));
+        }
+        return a;
+    }
+
+    /***
+     * Paths of random words from a common initial state, whose states are merged into numberOfClusters random clusters,
+     * which resembles the automata extracted by clustering the hidden states of an RNN.
+     * The result is a sorted nondeterministic automaton.
+     */
+    public static Automaton clusteredWords(
+            long seed, int numberOfWords, int maxWordLength, int numberOfLabels, int numberOfClusters
+    ) {
+        Random random = new Random(seed);
+        Automaton paths = paths(random, numberOfWords, maxWordLength, numberOfLabels);
+        int numberOfStates = paths.getNumberOfStates();
+        int[] cluster = new int[numberOfStates];
+        for (int q = 1; q < numberOfStates; q++) {
+            cluster[q] = random.nextInt(numberOfClusters);
+        }
+        Automaton a = new Automaton();
+        a.addInitialState(0);
+        a.addState(numberOfClusters - 1);
+        for (int q = 0; q < numberOfStates; q++) {
+            if (paths.getStateFinality(q) != 0) {
+                a.setStateFinality(cluster[q], 1);
+            }
+        }
+        for (int i = 0; i < paths.getNumberOfTransitions(); i++) {
+            a.addTransition(
+                    cluster[paths.getTransitionsFrom().seq[i]], paths.getTransitionsLabel().seq[i],
+                    cluster[paths.getTransitionsTo().seq[i]]
+            );
+        }
+        a.sort();
+        return a;
+    }
+
+    /***
+     * Separate paths of random words from a common initial state. The result is a sorted nondeterministic automaton,
+     * its determinization is the trie of the words.
+     */
+    public static Automaton paths(long seed, int numberOfWords, int maxWordLength, int numberOfLabels) {
+        Automaton a = paths(new Random(seed), numberOfWords, maxWordLength, numberOfLabels);
+        a.sort();
+        return a;
+    }
+
+    private static Automaton paths(Random random, int numberOfWords, int maxWordLength, int numberOfLabels) {
+        Automaton paths = new Automaton();
+        paths.addInitialState(0);
+        paths.addState(0);
+        int numberOfStates = 1;
+        for (int w = 0; w < numberOfWords; w++) {
+            int length = 1 + random.nextInt(maxWordLength);
+            int prev = 0;
+            for (int i = 0; i < length; i++) {
+                paths.addTransition(prev, random.nextInt(numberOfLabels), numberOfStates);
+                prev = numberOfStates;
+                numberOfStates++;
+            }
+            paths.setStateFinality(numberOfStates - 1, 1);
+        }
+        return paths;
+    }
+
+    /***
+     * Random sorted deterministic automaton in which every state has a transition with each label with probability 3/4.
+     */
+    public static Automaton deterministic(long seed, int numberOfStates, int numberOfLabels) {
+        Random random = new Random(seed);
+        Automaton a = new Automaton();
+        a.addInitialState(0);
+        a.addState(numberOfStates - 1);
+        for (int q = 0; q < numberOfStates; q++) {
+            a.setStateFinality(q, random.nextInt(3) == 0 ? 1 : 0);
+            for (int label = 0; label < numberOfLabels; label++) {
+                if (random.nextInt(4) != 0) {
+                    a.addTransition(q, label, random.nextInt(numberOfStates));
+                }
+            }
+        }
+        a.sort();
+        return a;
+    }
+
+    /***
+     * Random words over the labels 0,1,...,numberOfLabels-1 with lengths in [1, maxWordLength].
+     */
+    public static int[][] words(long seed, int numberOfWords, int maxWordLength, int numberOfLabels) {
+        Random random = new Random(seed);
+        int[][] words = new int[numberOfWords][];
+        for (int w = 0; w < numberOfWords; w++) {
+            words[w] = new int[1 + random.nextInt(maxWordLength)];
+            for (int i = 0; i < words[w].length; i++) {
+                words[w][i] = random.nextInt(numberOfLabels);
+            }
+        }
+        return words;
+    }
+
+    /***
+     * Copies the transitions of the given automaton in their current order.
+     */
+    public static Automaton copy(Automaton a) {
+        Automaton result = new Automaton();
+        for (int i = 0; i < a.getInitialStates().length; i++) {
+            result.addInitialState(a.getInitialStates().seq[i]);
+        }
+        result.addState(a.getNumberOfStates() - 1);
+        for (int q = 0; q < a.getNumberOfStates(); q++) {
+            result.setStateFinality(q, a.getStateFinality(q));
+        }
+        for (int i = 0; i < a.getNumberOfTransitions(); i++) {
+            result.addTransition(a.getTransitionsFrom().seq[i], a.getTransitionsLabel().seq[i], a.getTransitionsTo().seq[i]);
+        }
+        return result;
+    }
+}
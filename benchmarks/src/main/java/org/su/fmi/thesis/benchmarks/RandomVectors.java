@@ -0,0 +1,34 @@
+package org.su.fmi.thesis.benchmarks;
+
+import org.su.fmi.thesis.clustering.model.Vectors;
+
+import java.util.Random;
+
+/***
+ * Seeded generators of random vectors for the clustering benchmarks.
+ */
+public class RandomVectors {
+
+    /***
+     * Gaussian blobs around numberOfCenters random centers in [-10, 10]^dimension with random weights in [1, 10].
+     */
+    public static Vectors blobs(long seed, int numberOfVectors, int dimension, int numberOfCenters) {
+        Random random = new Random(seed);
+        double[][] centers = new double[numberOfCenters][dimension];
+        for (double[] center : centers) {
+            for (int d = 0; d < dimension; d++) {
+                center[d] = 20 * random.nextDouble() - 10;
+            }
+        }
+        double[] values = new double[numberOfVectors * dimension];
+        int[] weights = new int[numberOfVectors];
+        for (int i = 0; i < numberOfVectors; i++) {
+            double[] center = centers[random.nextInt(numberOfCenters)];
+            for (int d = 0; d < dimension; d++) {
+                values[i * dimension + d] = center[d] + random.nextGaussian();
+            }
+            weights[i] = 1 + random.nextInt(10);
+        }
+        return new Vectors(values, dimension, weights);
+    }
+}
@@ -0,0 +1,105 @@
+package org.su.fmi.thesis.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.su.fmi.thesis.automaton.Automaton;
+import org.su.fmi.thesis.automaton.utils.IntSequence;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.su.fmi.thesis.automaton.Automaton.NO;
+
+/***
+ * Compares Automaton.sort() with the comparator based sort it replaced.
+ * Every invocation sorts a fresh copy of the same unsorted automaton.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SortBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int numberOfTransitions;
+
+    private Automaton unsorted;
+    private Automaton a;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        unsorted = RandomAutomata.unsorted(666L, numberOfTransitions / 4, 64, numberOfTransitions);
+    }
+
+    @Setup(Level.Invocation)
+    public void copy() {
+        a = RandomAutomata.copy(unsorted);
+    }
+
+    @Benchmark
+    public Automaton radixSort() {
+        a.sort();
+        return a;
+    }
+
+    @Benchmark
+    public Automaton comparatorSort() {
+        comparatorSort(a);
+        return a;
+    }
+
+    /***
+     * The previous implementation of Automaton.sort().
+     */
+    static void comparatorSort(Automaton a) {
+        IntSequence transitionsFrom = a.getTransitionsFrom();
+        IntSequence transitionsLabel = a.getTransitionsLabel();
+        IntSequence transitionsTo = a.getTransitionsTo();
+        Integer[] transitions = new Integer[a.getNumberOfTransitions()];
+        for (int i = 0; i < transitions.length; i++) {
+            transitions[i] = i;
+        }
+        Arrays.sort(transitions, (t1, t2) -> {
+            if (transitionsFrom.seq[t1] != transitionsFrom.seq[t2]) {
+                return Integer.compare(transitionsFrom.seq[t1], transitionsFrom.seq[t2]);
+            }
+            if (transitionsLabel.seq[t1] != transitionsLabel.seq[t2]) {
+                return Integer.compare(transitionsLabel.seq[t1], transitionsLabel.seq[t2]);
+            }
+            return Integer.compare(transitionsTo.seq[t1], transitionsTo.seq[t2]);
+        });
+        for (int i = 0; i < transitions.length; i++) {
+            if (transitions[i] != NO) {
+                int from = transitionsFrom.seq[i];
+                int label = transitionsLabel.seq[i];
+                int to = transitionsTo.seq[i];
+                int j = i;
+                while (transitions[j] != i) {
+                    transitionsFrom.seq[j] = transitionsFrom.seq[transitions[j]];
+                    transitionsLabel.seq[j] = transitionsLabel.seq[transitions[j]];
+                    transitionsTo.seq[j] = transitionsTo.seq[transitions[j]];
+                    int next = transitions[j];
+                    transitions[j] = NO;
+                    j = next;
+                }
+                transitionsFrom.seq[j] = from;
+                transitionsLabel.seq[j] = label;
+                transitionsTo.seq[j] = to;
+                transitions[j] = NO;
+            }
+        }
+        a.initStatesTransitions();
+    }
+}
@@ -0,0 +1,13 @@
+package org.su.fmi.thesis.automaton;
+
+/***
+ * Deterministic word acceptance.
+ * Automaton, CompiledAutomaton and MappedAutomaton are read-only while answering queries, so one instance can be
+ * shared between threads. LazyDeterminization changes its cache on every query and must not be shared.
+ */
+public interface Acceptor {
+    /***
+     * Returns the finality of the state reached by seq[from..from+length) or 0 if there is no such state.
+     */
+    int accepts(int[] seq, int from, int length);
+}
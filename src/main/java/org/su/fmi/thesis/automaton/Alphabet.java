@@ -0,0 +1,61 @@
+package org.su.fmi.thesis.automaton;
+
+import static org.su.fmi.thesis.automaton.Automaton.NO;
+
+/***
+ * Maps the labels of an automaton to the columns 0,1,...,size-1 in increasing order of the labels.
+ * If the labels form a contiguous range the column of a label is label - minLabel,
+ * otherwise it is looked up in an array indexed by label - minLabel.
+ */
+class Alphabet {
+    static final int MAX_LABEL_RANGE = 1 << 24;
+
+    int minLabel;
+    int maxLabel;
+    int[] columns;
+    int size;
+
+    Alphabet(Automaton a) {
+        int numberOfTransitions = a.getNumberOfTransitions();
+        minLabel = Integer.MAX_VALUE;
+        maxLabel = Integer.MIN_VALUE;
+        for (int tr = 0; tr < numberOfTransitions; tr++) {
+            minLabel = Math.min(minLabel, a.transitionsLabel.seq[tr]);
+            maxLabel = Math.max(maxLabel, a.transitionsLabel.seq[tr]);
+        }
+        if (numberOfTransitions == 0) {
+            minLabel = maxLabel = 0;
+        }
+        if ((long) maxLabel - minLabel >= MAX_LABEL_RANGE) {
+            throw new IllegalArgumentException("Label range is too large: [" + minLabel + ", " + maxLabel + "]");
+        }
+        columns = new int[maxLabel - minLabel + 1];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = NO;
+        }
+        for (int tr = 0; tr < numberOfTransitions; tr++) {
+            columns[a.transitionsLabel.seq[tr] - minLabel] = 0;
+        }
+        size = 0;
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i] != NO) {
+                columns[i] = size;
+                size++;
+            }
+        }
+        if (size == columns.length) {
+            columns = null;
+        }
+        size = Math.max(size, 1);
+    }
+
+    /***
+     * Returns NO if the label does not occur in the automaton.
+     */
+    int column(int label) {
+        if (label < minLabel || label > maxLabel) {
+            return NO;
+        }
+        return (columns == null) ? label - minLabel : columns[label - minLabel];
+    }
+}
@@ -11,9 +11,11 @@ import java.util.Deque;
 import java.util.HashSet;
 import java.util.Set;
 
-public class Automaton {
+public class Automaton implements Acceptor {
 
     public static final int NO = Integer.MIN_VALUE;
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
     protected IntSequence initialStates;
     protected IntSequence transitionsFrom;
     protected IntSequence transitionsLabel;
@@ -150,53 +152,82 @@ public class Automaton {
         return (tr < 0) ? NO : tr;
     }
 
+    /***
+     * Sorts the transitions by (from, label, to) with LSD radix sort on primitive arrays.
+     * Byte passes on which all keys agree are skipped, so small state and label ranges take few passes.
+     */
     public void sort() {
-        Integer[] transitions = new Integer[getNumberOfTransitions()];
-        for (int i = 0; i < transitions.length; i++) {
-            transitions[i] = i;
+        int numberOfTransitions = getNumberOfTransitions();
+        if (isSorted()) {
+            initStatesTransitions();
+            return;
         }
-        Arrays.sort(transitions, (t1, t2) -> {
-            if (transitionsFrom.seq[t1] < transitionsFrom.seq[t2]) {
-                return -1;
-            }
-            if (transitionsFrom.seq[t1] > transitionsFrom.seq[t2]) {
-                return 1;
-            }
-            if (transitionsLabel.seq[t1] < transitionsLabel.seq[t2]) {
-                return -1;
-            }
-            if (transitionsLabel.seq[t1] > transitionsLabel.seq[t2]) {
-                return 1;
+        int[] from = transitionsFrom.seq;
+        int[] label = transitionsLabel.seq;
+        int[] to = transitionsTo.seq;
+        int[] fromBuffer = new int[from.length];
+        int[] labelBuffer = new int[label.length];
+        int[] toBuffer = new int[to.length];
+        int[] count = new int[RADIX + 1];
+        int[][] keys = {to, label, from};
+        for (int key = 0; key < keys.length; key++) {
+            for (int shift = 0; shift < Integer.SIZE; shift += RADIX_BITS) {
+                int[] k = keys[key];
+                Arrays.fill(count, 0);
+                for (int i = 0; i < numberOfTransitions; i++) {
+                    count[digit(k[i], shift) + 1]++;
+                }
+                if (count[digit(k[0], shift) + 1] == numberOfTransitions) {
+                    continue;
+                }
+                for (int d = 0; d < RADIX; d++) {
+                    count[d + 1] += count[d];
+                }
+                for (int i = 0; i < numberOfTransitions; i++) {
+                    int j = count[digit(k[i], shift)]++;
+                    fromBuffer[j] = from[i];
+                    labelBuffer[j] = label[i];
+                    toBuffer[j] = to[i];
+                }
+                int[] tmp = from;
+                from = fromBuffer;
+                fromBuffer = tmp;
+                tmp = label;
+                label = labelBuffer;
+                labelBuffer = tmp;
+                tmp = to;
+                to = toBuffer;
+                toBuffer = tmp;
+                keys[0] = to;
+                keys[1] = label;
+                keys[2] = from;
             }
-            if (transitionsTo.seq[t1] < transitionsTo.seq[t2]) {
-                return -1;
+        }
+        transitionsFrom.seq = from;
+        transitionsLabel.seq = label;
+        transitionsTo.seq = to;
+        initStatesTransitions();
+    }
+
+    private static int digit(int key, int shift) {
+        return ((key ^ Integer.MIN_VALUE) >>> shift) & (RADIX - 1);
+    }
+
+    private boolean isSorted() {
+        int numberOfTransitions = getNumberOfTransitions();
+        for (int i = 1; i < numberOfTransitions; i++) {
+            int c = Integer.compare(transitionsFrom.seq[i - 1], transitionsFrom.seq[i]);
+            if (c == 0) {
+                c = Integer.compare(transitionsLabel.seq[i - 1], transitionsLabel.seq[i]);
             }
-            if (transitionsTo.seq[t1] > transitionsTo.seq[t2]) {
-                return 1;
+            if (c == 0) {
+                c = Integer.compare(transitionsTo.seq[i - 1], transitionsTo.seq[i]);
             }
-            return 0;
-        });
-        for (int i = 0; i < transitions.length; i++) {
-            if (transitions[i] != NO) {
-                int from = transitionsFrom.seq[i];
-                int label = transitionsLabel.seq[i];
-                int to = transitionsTo.seq[i];
-                int j = i;
-                while (transitions[j] != i) {
-                    transitionsFrom.seq[j] = transitionsFrom.seq[transitions[j]];
-                    transitionsLabel.seq[j] = transitionsLabel.seq[transitions[j]];
-                    transitionsTo.seq[j] = transitionsTo.seq[transitions[j]];
-                    int next = transitions[j];
-                    transitions[j] = NO;
-                    j = next;
-                }
-                transitionsFrom.seq[j] = from;
-                transitionsLabel.seq[j] = label;
-                transitionsTo.seq[j] = to;
-                transitions[j] = NO;
+            if (c > 0) {
+                return false;
             }
         }
-        initStatesTransitions();
+        return true;
     }
 
     public void initStatesTransitions() {
@@ -233,11 +264,40 @@ public class Automaton {
         return new Determinization(this).determinize();
     }
 
+    /***
+     * Expects sorted automaton. The result is the same as the result of determinize().
+     */
+    public Automaton determinize(int numberOfThreads) {
+        return new ParallelDeterminization(this, numberOfThreads).determinize();
+    }
+
     /***
      * Expects sorted trimmed automaton.
      */
     public Automaton minimize() {
-        return new Minimization(this).minimize();
+        return minimize(MinimizationAlgorithm.CLASS_SPLITTING);
+    }
+
+    /***
+     * Expects sorted trimmed automaton.
+     */
+    public Automaton minimize(MinimizationAlgorithm algorithm) {
+        switch (algorithm) {
+            case HOPCROFT:
+                return new HopcroftMinimization(this).minimize();
+            case BRZOZOWSKI:
+                return new BrzozowskiMinimization(this).minimize();
+            case CLASS_SPLITTING:
+            default:
+                return new Minimization(this).minimize();
+        }
+    }
+
+    /***
+     * Expects sorted deterministic automaton.
+     */
+    public CompiledAutomaton compile() {
+        return new CompiledAutomaton(this);
     }
 
     public Automaton reverse() {
@@ -466,10 +526,21 @@ public class Automaton {
         statesFinality.length = 0;
     }
 
+    /***
+     * Expects sorted deterministic automaton.
+     */
     public int accepts(IntSequence seq) {
+        return accepts(seq.seq, 0, seq.length);
+    }
+
+    /***
+     * Expects sorted deterministic automaton.
+     */
+    @Override
+    public int accepts(int[] seq, int from, int length) {
         int state = initialStates.seq[0];
-        for (int i = 0; i < seq.length; ++i) {
-            int next_state = delta(state, seq.seq[i]);
+        for (int i = from; i < from + length; ++i) {
+            int next_state = delta(state, seq[i]);
             if (next_state != NO) {
                 state = next_state;
             } else {
@@ -479,71 +550,142 @@ public class Automaton {
         return statesFinality.seq[state];
     }
 
-    public int numberOfReachableStates() {
-        boolean[] visited = new boolean[getNumberOfStates()];
-        Deque<Integer> stack = new ArrayDeque<>(getNumberOfStates());
-
+    /***
+     * Expects sorted automaton. Returns a bitset of the states reachable from the initial states.
+     */
+    public long[] reachableStates() {
+        int numberOfStates = getNumberOfStates();
+        long[] visited = new long[(numberOfStates + 63) >>> 6];
+        int[] queue = new int[numberOfStates];
+        int numberOfVisited = 0;
         for (int i = 0; i < initialStates.length; ++i) {
-            stack.push(initialStates.seq[i]);
+            numberOfVisited = visit(initialStates.seq[i], visited, queue, numberOfVisited);
+        }
+        for (int head = 0; head < numberOfVisited; ++head) {
+            int state = queue[head];
+            int first = statesTransitions.seq[state];
+            int last = first + getStateNumberOfTransitions(state);
+            for (int tr = first; tr < last; ++tr) {
+                numberOfVisited = visit(transitionsTo.seq[tr], visited, queue, numberOfVisited);
+            }
         }
+        return visited;
+    }
 
-        dfs(stack, visited);
+    /***
+     * Returns a bitset of the states from which a final state is reachable.
+     * The search goes backwards from the final states over an index of the incoming transitions,
+     * so it is linear in the size of the automaton.
+     */
+    public long[] coReachableStates() {
+        int numberOfStates = getNumberOfStates();
+        int numberOfTransitions = getNumberOfTransitions();
+        int[] incomingFirst = new int[numberOfStates + 1];
+        for (int tr = 0; tr < numberOfTransitions; ++tr) {
+            incomingFirst[transitionsTo.seq[tr] + 1]++;
+        }
+        for (int state = 0; state < numberOfStates; ++state) {
+            incomingFirst[state + 1] += incomingFirst[state];
+        }
+        int[] incoming = new int[numberOfTransitions];
+        int[] position = Arrays.copyOf(incomingFirst, numberOfStates);
+        for (int tr = 0; tr < numberOfTransitions; ++tr) {
+            incoming[position[transitionsTo.seq[tr]]++] = transitionsFrom.seq[tr];
+        }
 
-        int count = 0;
-        for (int i = 0; i < getNumberOfStates(); ++i) {
-            if (visited[i]) {
-                ++count;
+        long[] visited = new long[(numberOfStates + 63) >>> 6];
+        int[] queue = new int[numberOfStates];
+        int numberOfVisited = 0;
+        for (int state = 0; state < numberOfStates; ++state) {
+            if (statesFinality.seq[state] != 0) {
+                numberOfVisited = visit(state, visited, queue, numberOfVisited);
             }
         }
-        return count;
+        for (int head = 0; head < numberOfVisited; ++head) {
+            int state = queue[head];
+            for (int i = incomingFirst[state]; i < incomingFirst[state + 1]; ++i) {
+                numberOfVisited = visit(incoming[i], visited, queue, numberOfVisited);
+            }
+        }
+        return visited;
     }
 
-    private void dfs(Deque<Integer> stack, boolean[] visited) {
-        while (!stack.isEmpty()) {
-            int top = stack.pop();
-            visited[top] = true;
-
-            for (int i = 0; i < getStateNumberOfTransitions(top); ++i) {
-                int adjacent = transitionsTo.seq[statesTransitions.seq[top] + i];
-                if (!visited[adjacent]) {
-                    stack.push(adjacent);
-                }
-            }
+    private static int visit(int state, long[] visited, int[] queue, int numberOfVisited) {
+        if ((visited[state >>> 6] & (1L << state)) == 0) {
+            visited[state >>> 6] |= 1L << state;
+            queue[numberOfVisited++] = state;
         }
+        return numberOfVisited;
     }
 
-    public int numberOfCoReachableStates() {
+    private static int count(long[] bits) {
         int count = 0;
-        for (int state = 0; state < statesFinality.length; ++state) {
-            if (coReachable(state)) {
-                ++count;
-            }
+        for (long word : bits) {
+            count += Long.bitCount(word);
         }
         return count;
     }
 
-    private boolean coReachable(int state) {
-        boolean[] visited = new boolean[getNumberOfStates()];
-        Deque<Integer> stack = new ArrayDeque<>(getNumberOfStates());
+    public int numberOfReachableStates() {
+        return count(reachableStates());
+    }
 
-        stack.push(state);
+    public int numberOfCoReachableStates() {
+        return count(coReachableStates());
+    }
 
-        while (!stack.isEmpty()) {
-            int top = stack.pop();
-            visited[top] = true;
+    /***
+     * Expects sorted automaton.
+     * Removes the states which are not reachable or not co-reachable and renumbers the remaining states
+     * in breadth first order from the initial states, following the transitions in label order.
+     * The result is sorted and can be minimized directly.
+     * If the language is empty the result is a single non-final initial state without transitions.
+     */
+    public Automaton trim() {
+        int numberOfStates = getNumberOfStates();
+        long[] coReachable = coReachableStates();
+        // a co-reachable state reachable from an initial state is reachable through co-reachable states only,
+        // so the breadth first search is restricted to them
+        long[] visited = new long[coReachable.length];
+        int[] queue = new int[numberOfStates];
+        int[] newNumber = new int[numberOfStates];
+        int numberOfVisited = 0;
 
-            if (statesFinality.seq[top] == 1) {
-                return true;
+        Automaton result = new Automaton();
+        for (int i = 0; i < initialStates.length; ++i) {
+            int state = initialStates.seq[i];
+            if ((coReachable[state >>> 6] & (1L << state)) != 0) {
+                if ((visited[state >>> 6] & (1L << state)) == 0) {
+                    newNumber[state] = numberOfVisited;
+                }
+                numberOfVisited = visit(state, visited, queue, numberOfVisited);
+                result.initialStates.add(newNumber[state]);
             }
-
-            for (int i = 0; i < getStateNumberOfTransitions(top); ++i) {
-                int adjacent = transitionsTo.seq[statesTransitions.seq[top] + i];
-                if (!visited[adjacent]) {
-                    stack.push(adjacent);
+        }
+        for (int head = 0; head < numberOfVisited; ++head) {
+            int state = queue[head];
+            result.addState(head);
+            result.setStateFinality(head, statesFinality.seq[state]);
+            int first = statesTransitions.seq[state];
+            int last = first + getStateNumberOfTransitions(state);
+            for (int tr = first; tr < last; ++tr) {
+                int to = transitionsTo.seq[tr];
+                if ((coReachable[to >>> 6] & (1L << to)) != 0) {
+                    if ((visited[to >>> 6] & (1L << to)) == 0) {
+                        newNumber[to] = numberOfVisited;
+                        numberOfVisited = visit(to, visited, queue, numberOfVisited);
+                    }
+                    result.addTransition(head, transitionsLabel.seq[tr], newNumber[to]);
                 }
             }
         }
-        return false;
+        if (numberOfVisited == 0) {
+            result.addState(0);
+            result.initialStates.add(0);
+        }
+        // the transitions are emitted in label order, only the targets of a nondeterministic state may be unordered
+        result.sort();
+        return result;
     }
 
     public boolean containsCycle() {
@@ -0,0 +1,156 @@
+package org.su.fmi.thesis.automaton;
+
+import org.su.fmi.thesis.automaton.utils.IntSequence;
+import org.su.fmi.thesis.automaton.utils.LinearProbingEnumerator;
+
+import java.util.Arrays;
+
+/***
+ * Brzozowski minimization, determinize(reverse(determinize(reverse(a)))).
+ * Each reverse + determinize step is fused into one subset construction which reads the incoming transitions
+ * of the states instead of a reversed automaton, so there is no intermediate sort and no intermediate Automaton.
+ * Works on nondeterministic automata as well, the result is the minimal deterministic automaton.
+ */
+class BrzozowskiMinimization {
+    private Automaton a;
+
+    BrzozowskiMinimization(Automaton a) {
+        this.a = a;
+    }
+
+    Automaton minimize() {
+        Graph g = new Graph(a.getNumberOfStates(), a.transitionsFrom, a.transitionsLabel, a.transitionsTo,
+                a.initialStates, a.statesFinality);
+        return reverseDeterminize(reverseDeterminize(g)).toAutomaton();
+    }
+
+    /***
+     * Subset construction of the reverse of g. The subsets are numbered in breadth first order and
+     * the transitions of every subset are emitted in label order, so the result is sorted.
+     */
+    private static Graph reverseDeterminize(Graph g) {
+        int numberOfStates = g.numberOfStates;
+        int numberOfTransitions = g.transitionsFrom.length;
+
+        // incoming transitions grouped by target and sorted by label, as (label, source) keys
+        int[] incomingFirst = new int[numberOfStates + 1];
+        for (int tr = 0; tr < numberOfTransitions; tr++) {
+            incomingFirst[g.transitionsTo.seq[tr] + 1]++;
+        }
+        for (int state = 0; state < numberOfStates; state++) {
+            incomingFirst[state + 1] += incomingFirst[state];
+        }
+        long[] incoming = new long[numberOfTransitions];
+        int[] position = Arrays.copyOf(incomingFirst, numberOfStates);
+        for (int tr = 0; tr < numberOfTransitions; tr++) {
+            incoming[position[g.transitionsTo.seq[tr]]++] = key(g.transitionsLabel.seq[tr], g.transitionsFrom.seq[tr]);
+        }
+        for (int state = 0; state < numberOfStates; state++) {
+            Arrays.sort(incoming, incomingFirst[state], incomingFirst[state + 1]);
+        }
+        boolean[] initial = new boolean[numberOfStates];
+        for (int i = 0; i < g.initialStates.length; i++) {
+            initial[g.initialStates.seq[i]] = true;
+        }
+
+        StateSetStore sets = new StateSetStore();
+        LinearProbingEnumerator<StateSet> num = new LinearProbingEnumerator<>(sets);
+        StateSet set = new StateSet(numberOfStates);
+        long[] keys = new long[16];
+        Graph result = new Graph(0);
+
+        for (int state = 0; state < numberOfStates; state++) {
+            if (g.statesFinality.seq[state] != 0) {
+                set.add(state);
+            }
+        }
+        result.initialStates.add(num.add(set));
+
+        for (int s = 0; s < sets.getNumberOfSets(); s++) {
+            int first = sets.setsStates.seq[s];
+            int last = first + sets.getNumberOfStates(s);
+            int finality = 0;
+            int numberOfKeys = 0;
+            for (int i = first; i < last; i++) {
+                int state = sets.states.seq[i];
+                if (initial[state]) {
+                    finality = 1;
+                }
+                int length = incomingFirst[state + 1] - incomingFirst[state];
+                if (numberOfKeys + length > keys.length) {
+                    keys = Arrays.copyOf(keys, Math.max(2 * keys.length, numberOfKeys + length));
+                }
+                System.arraycopy(incoming, incomingFirst[state], keys, numberOfKeys, length);
+                numberOfKeys += length;
+            }
+            result.statesFinality.add(finality);
+
+            Arrays.sort(keys, 0, numberOfKeys);
+            for (int i = 0; i < numberOfKeys; ) {
+                int label = (int) (keys[i] >> 32);
+                set.clear();
+                for (; i < numberOfKeys && (int) (keys[i] >> 32) == label; i++) {
+                    set.add((int) keys[i]);
+                }
+                result.transitionsFrom.add(s);
+                result.transitionsLabel.add(label);
+                result.transitionsTo.add(num.add(set));
+            }
+        }
+        result.numberOfStates = sets.getNumberOfSets();
+        return result;
+    }
+
+    /***
+     * Orders by label (signed) and then by state.
+     */
+    private static long key(int label, int state) {
+        return (((long) label) << 32) | (state & 0xFFFFFFFFL);
+    }
+
+    /***
+     * The transitions, initial states and finality of an automaton without the per state index.
+     */
+    private static class Graph {
+        private int numberOfStates;
+        private IntSequence transitionsFrom;
+        private IntSequence transitionsLabel;
+        private IntSequence transitionsTo;
+        private IntSequence initialStates;
+        private IntSequence statesFinality;
+
+        Graph(int numberOfStates, IntSequence transitionsFrom, IntSequence transitionsLabel, IntSequence transitionsTo,
+              IntSequence initialStates, IntSequence statesFinality) {
+            this.numberOfStates = numberOfStates;
+            this.transitionsFrom = transitionsFrom;
+            this.transitionsLabel = transitionsLabel;
+            this.transitionsTo = transitionsTo;
+            this.initialStates = initialStates;
+            this.statesFinality = statesFinality;
+        }
+
+        Graph(int numberOfStates) {
+            this(numberOfStates, new IntSequence(), new IntSequence(), new IntSequence(), new IntSequence(),
+                    new IntSequence());
+        }
+
+        /***
+         * Expects transitions sorted by source and label.
+         */
+        Automaton toAutomaton() {
+            Automaton result = new Automaton();
+            result.initialStates.cpy(initialStates);
+            if (numberOfStates > 0) {
+                result.addState(numberOfStates - 1);
+            }
+            for (int state = 0; state < numberOfStates; state++) {
+                result.setStateFinality(state, statesFinality.seq[state]);
+            }
+            for (int tr = 0; tr < transitionsFrom.length; tr++) {
+                result.addTransition(transitionsFrom.seq[tr], transitionsLabel.seq[tr], transitionsTo.seq[tr]);
+            }
+            result.initStatesTransitions();
+            return result;
+        }
+    }
+}
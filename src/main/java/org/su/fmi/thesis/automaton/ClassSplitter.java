@@ -1,9 +1,9 @@
 package org.su.fmi.thesis.automaton;
 
 import org.su.fmi.thesis.automaton.utils.Enumerable;
-import org.su.fmi.thesis.automaton.utils.Enumerator;
 import org.su.fmi.thesis.automaton.utils.FNV1A;
 import org.su.fmi.thesis.automaton.utils.IntSequence;
+import org.su.fmi.thesis.automaton.utils.LinearProbingEnumerator;
 
 class ClassSplitter implements Enumerable<Integer> {
     private Minimization minimization;
@@ -11,13 +11,13 @@ class ClassSplitter implements Enumerable<Integer> {
     private int transition;
     private int[] statesClassNumber;
     private Automaton a;
-    private Enumerator<Integer> num;
+    private LinearProbingEnumerator<Integer> num;
 
     ClassSplitter(Minimization minimization) {
         this.minimization = minimization;
         this.statesClassNumber = minimization.statesClassNumber;
         this.a = minimization.a;
-        this.num = new Enumerator<>(this, true);
+        this.num = new LinearProbingEnumerator<>(this, true);
     }
 
     void reset(int transition) {
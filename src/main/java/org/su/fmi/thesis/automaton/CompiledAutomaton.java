@@ -0,0 +1,112 @@
+package org.su.fmi.thesis.automaton;
+
+import org.su.fmi.thesis.automaton.utils.IntSequence;
+
+import static org.su.fmi.thesis.automaton.Automaton.NO;
+
+/***
+ * Frozen deterministic automaton with a dense transition table.
+ * The labels are mapped to the columns 0,1,...,alphabetSize-1 and the table stores for every row and column
+ * the row offset (state * alphabetSize) of the target state, or NO if there is no transition.
+ * Storing row offsets instead of states makes every step of accepts a single array load
+ * when the labels form a contiguous range.
+ */
+public class CompiledAutomaton implements Acceptor {
+    private int initialRow;
+    private int alphabetSize;
+    private int minLabel;
+    private int maxLabel;
+    private Alphabet alphabet;
+    private int[] table;
+    private int[] statesFinality;
+
+    /***
+     * Expects sorted deterministic automaton.
+     */
+    public CompiledAutomaton(Automaton a) {
+        int numberOfStates = a.getNumberOfStates();
+        int numberOfTransitions = a.getNumberOfTransitions();
+
+        alphabet = new Alphabet(a);
+        alphabetSize = alphabet.size;
+        minLabel = alphabet.minLabel;
+        maxLabel = alphabet.maxLabel;
+
+        if ((long) numberOfStates * alphabetSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    "Transition table of " + numberOfStates + " x " + alphabetSize + " does not fit in an array"
+            );
+        }
+        table = new int[numberOfStates * alphabetSize];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = NO;
+        }
+        for (int tr = 0; tr < numberOfTransitions; tr++) {
+            int row = a.transitionsFrom.seq[tr] * alphabetSize;
+            table[row + alphabet.column(a.transitionsLabel.seq[tr])] = a.transitionsTo.seq[tr] * alphabetSize;
+        }
+
+        statesFinality = new int[numberOfStates];
+        System.arraycopy(a.statesFinality.seq, 0, statesFinality, 0, numberOfStates);
+        initialRow = (a.initialStates.length > 0) ? a.initialStates.seq[0] * alphabetSize : NO;
+    }
+
+    public int getNumberOfStates() {
+        return statesFinality.length;
+    }
+
+    public int getAlphabetSize() {
+        return alphabetSize;
+    }
+
+    public int getInitialState() {
+        return (initialRow != NO) ? initialRow / alphabetSize : NO;
+    }
+
+    public int getStateFinality(int state) {
+        return statesFinality[state];
+    }
+
+    public int delta(int state, int label) {
+        int row = step(state * alphabetSize, label);
+        return (row != NO) ? row / alphabetSize : NO;
+    }
+
+    public int accepts(IntSequence seq) {
+        return accepts(seq.seq, 0, seq.length);
+    }
+
+    @Override
+    public int accepts(int[] seq, int from, int length) {
+        int row = initialRow;
+        if (row == NO) {
+            return 0;
+        }
+        int to = from + length;
+        if (alphabet.columns == null) {
+            for (int i = from; i < to; ++i) {
+                int label = seq[i];
+                if (label < minLabel || label > maxLabel) {
+                    return 0;
+                }
+                row = table[row + label - minLabel];
+                if (row == NO) {
+                    return 0;
+                }
+            }
+        } else {
+            for (int i = from; i < to; ++i) {
+                row = step(row, seq[i]);
+                if (row == NO) {
+                    return 0;
+                }
+            }
+        }
+        return statesFinality[row / alphabetSize];
+    }
+
+    private int step(int row, int label) {
+        int column = alphabet.column(label);
+        return (column != NO) ? table[row + column] : NO;
+    }
+}
@@ -0,0 +1,195 @@
+package org.su.fmi.thesis.automaton;
+
+import java.util.Arrays;
+
+/***
+ * Partition refinement minimization in O(m log n) time.
+ * This is the Valmari-Lehtinen variant of Hopcroft's algorithm which works on partial transition functions.
+ * The states are refined by blocks and the transitions are refined by cords (label and target block).
+ * Each new block is used as a splitter only for the smaller half, which gives the logarithmic factor.
+ */
+class HopcroftMinimization {
+    private Automaton a;
+    private Partition blocks;
+    private Partition cords;
+    private int[] incomingFirst;
+    private int[] incoming;
+
+    HopcroftMinimization(Automaton a) {
+        this.a = a;
+    }
+
+    Automaton minimize() {
+        if (a.initialStates.length == 0) {
+            return new Automaton();
+        }
+        int numberOfStates = a.getNumberOfStates();
+        int numberOfTransitions = a.getNumberOfTransitions();
+
+        blocks = new Partition(numberOfStates);
+        for (int state = 0; state < numberOfStates; state++) {
+            if (a.getStateFinality(state) != 0) {
+                blocks.mark(state);
+            }
+        }
+        blocks.split();
+
+        cords = new Partition(numberOfTransitions);
+        initCords();
+        initIncoming();
+
+        int b = 1;
+        int c = 0;
+        while (c < cords.numberOfSets) {
+            for (int i = cords.first[c]; i < cords.past[c]; i++) {
+                blocks.mark(a.transitionsFrom.seq[cords.elements[i]]);
+            }
+            blocks.split();
+            c++;
+            while (b < blocks.numberOfSets) {
+                for (int i = blocks.first[b]; i < blocks.past[b]; i++) {
+                    int state = blocks.elements[i];
+                    for (int j = incomingFirst[state]; j < incomingFirst[state + 1]; j++) {
+                        cords.mark(incoming[j]);
+                    }
+                }
+                cords.split();
+                b++;
+            }
+        }
+
+        Automaton result = new Automaton();
+        result.initialStates.add(blocks.sets[a.initialStates.seq[0]]);
+        for (int cl = 0; cl < blocks.numberOfSets; cl++) {
+            result.addState(cl);
+            int q = blocks.elements[blocks.first[cl]];
+            result.setStateFinality(cl, a.getStateFinality(q));
+            int numberOfStateTransitions = a.getStateNumberOfTransitions(q);
+            for (int i = 0; i < numberOfStateTransitions; i++) {
+                int tr = a.statesTransitions.seq[q] + i;
+                result.addTransition(cl, a.transitionsLabel.seq[tr], blocks.sets[a.transitionsTo.seq[tr]]);
+            }
+        }
+        result.initStatesTransitions();
+        return result;
+    }
+
+    /***
+     * Groups the transitions into one cord per label.
+     */
+    private void initCords() {
+        int numberOfTransitions = a.getNumberOfTransitions();
+        if (numberOfTransitions == 0) {
+            cords.numberOfSets = 0;
+            return;
+        }
+        long[] keys = new long[numberOfTransitions];
+        for (int tr = 0; tr < numberOfTransitions; tr++) {
+            keys[tr] = (((long) a.transitionsLabel.seq[tr]) << 32) | tr;
+        }
+        Arrays.sort(keys);
+        int cord = 0;
+        cords.first[0] = 0;
+        for (int i = 0; i < numberOfTransitions; i++) {
+            int tr = (int) keys[i];
+            if (i > 0 && a.transitionsLabel.seq[tr] != a.transitionsLabel.seq[(int) keys[i - 1]]) {
+                cords.past[cord] = i;
+                cord++;
+                cords.first[cord] = i;
+            }
+            cords.elements[i] = tr;
+            cords.locations[tr] = i;
+            cords.sets[tr] = cord;
+        }
+        cords.past[cord] = numberOfTransitions;
+        cords.numberOfSets = cord + 1;
+    }
+
+    private void initIncoming() {
+        int numberOfStates = a.getNumberOfStates();
+        int numberOfTransitions = a.getNumberOfTransitions();
+        incomingFirst = new int[numberOfStates + 1];
+        incoming = new int[numberOfTransitions];
+        for (int tr = 0; tr < numberOfTransitions; tr++) {
+            incomingFirst[a.transitionsTo.seq[tr] + 1]++;
+        }
+        for (int state = 0; state < numberOfStates; state++) {
+            incomingFirst[state + 1] += incomingFirst[state];
+        }
+        int[] next = Arrays.copyOf(incomingFirst, numberOfStates);
+        for (int tr = 0; tr < numberOfTransitions; tr++) {
+            incoming[next[a.transitionsTo.seq[tr]]++] = tr;
+        }
+    }
+
+    /***
+     * Refinable partition of {0,1,...,n-1}.
+     * The elements of every set are kept contiguous in elements[first[s]..past[s]).
+     * Marked elements are moved to the front of their set, split() separates them.
+     */
+    private static class Partition {
+        int numberOfSets;
+        int[] elements;
+        int[] locations;
+        int[] sets;
+        int[] first;
+        int[] past;
+        private int[] marked;
+        private int[] touched;
+        private int numberOfTouched;
+
+        Partition(int n) {
+            numberOfSets = (n > 0) ? 1 : 0;
+            elements = new int[n];
+            locations = new int[n];
+            sets = new int[n];
+            first = new int[n];
+            past = new int[n];
+            marked = new int[n];
+            touched = new int[n];
+            for (int i = 0; i < n; i++) {
+                elements[i] = locations[i] = i;
+            }
+            if (n > 0) {
+                past[0] = n;
+            }
+        }
+
+        void mark(int e) {
+            int s = sets[e];
+            int i = locations[e];
+            int j = first[s] + marked[s];
+            elements[i] = elements[j];
+            locations[elements[i]] = i;
+            elements[j] = e;
+            locations[e] = j;
+            if (marked[s]++ == 0) {
+                touched[numberOfTouched++] = s;
+            }
+        }
+
+        void split() {
+            while (numberOfTouched > 0) {
+                int s = touched[--numberOfTouched];
+                int j = first[s] + marked[s];
+                if (j == past[s]) {
+                    marked[s] = 0;
+                    continue;
+                }
+                int z = numberOfSets;
+                if (marked[s] <= past[s] - j) {
+                    first[z] = first[s];
+                    past[z] = first[s] = j;
+                } else {
+                    past[z] = past[s];
+                    first[z] = past[s] = j;
+                }
+                for (int i = first[z]; i < past[z]; i++) {
+                    sets[elements[i]] = z;
+                }
+                marked[s] = marked[z] = 0;
+                numberOfSets++;
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package org.su.fmi.thesis.automaton;
+
+import org.su.fmi.thesis.automaton.utils.LinearProbingEnumerator;
+
+import java.util.Arrays;
+
+import static org.su.fmi.thesis.automaton.Automaton.NO;
+
+/***
+ * Deterministic view of a sorted nondeterministic automaton which is built on the fly.
+ * The subsets and their transitions are computed only when a query reaches them and are kept in a cache
+ * of at most maxNumberOfSets subsets with at most maxNumberOfStoredStates states in total.
+ * When the cache is full it is flushed and the query continues from the subset it has just computed,
+ * so the memory stays bounded even when the full subset construction blows up.
+ * The cache is mutated by the queries, so an instance must not be shared between threads,
+ * every thread needs its own instance.
+ */
+public class LazyDeterminization implements Acceptor {
+    public static final int DEFAULT_MAX_NUMBER_OF_SETS = 1 << 12;
+    public static final int DEFAULT_MAX_NUMBER_OF_STORED_STATES = 1 << 22;
+    private static final int UNKNOWN = NO + 1;
+
+    private Automaton a;
+    private Alphabet alphabet;
+    private int maxNumberOfSets;
+    private int maxNumberOfStoredStates;
+    private StateSetStore sets = new StateSetStore();
+    private LinearProbingEnumerator<StateSet> num = new LinearProbingEnumerator<>(sets);
+    private StateSet set;
+    private int[] setsFinality;
+    private int[] table;
+    private int initialSet = NO;
+    private long numberOfFlushes;
+
+    public LazyDeterminization(Automaton a) {
+        this(a, DEFAULT_MAX_NUMBER_OF_SETS, DEFAULT_MAX_NUMBER_OF_STORED_STATES);
+    }
+
+    /***
+     * Expects sorted automaton.
+     */
+    public LazyDeterminization(Automaton a, int maxNumberOfSets, int maxNumberOfStoredStates) {
+        this.a = a;
+        this.alphabet = new Alphabet(a);
+        this.maxNumberOfSets = Math.max(maxNumberOfSets, 1);
+        this.maxNumberOfStoredStates = maxNumberOfStoredStates;
+        this.set = new StateSet(a.getNumberOfStates());
+        this.setsFinality = new int[this.maxNumberOfSets];
+        if ((long) this.maxNumberOfSets * alphabet.size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    "Transition cache of " + maxNumberOfSets + " x " + alphabet.size + " does not fit in an array"
+            );
+        }
+        this.table = new int[this.maxNumberOfSets * alphabet.size];
+        Arrays.fill(table, UNKNOWN);
+    }
+
+    public long getNumberOfFlushes() {
+        return numberOfFlushes;
+    }
+
+    public int getNumberOfCachedSets() {
+        return sets.getNumberOfSets();
+    }
+
+    @Override
+    public int accepts(int[] seq, int from, int length) {
+        if (initialSet == NO) {
+            set.clear();
+            for (int i = 0; i < a.initialStates.length; i++) {
+                set.add(a.initialStates.seq[i]);
+            }
+            initialSet = enumerate();
+        }
+        int s = initialSet;
+        for (int i = from; i < from + length; ++i) {
+            int column = alphabet.column(seq[i]);
+            if (column == NO) {
+                return 0;
+            }
+            int t = table[s * alphabet.size + column];
+            if (t == UNKNOWN) {
+                t = computeTransition(s, seq[i], column);
+            }
+            if (t == NO) {
+                return 0;
+            }
+            s = t;
+        }
+        return setsFinality[s];
+    }
+
+    /***
+     * Computes the subset reached from s with label. Returns NO if the subset is empty.
+     */
+    private int computeTransition(int s, int label, int column) {
+        set.clear();
+        int first = sets.setsStates.seq[s];
+        int numberOfStates = sets.getNumberOfStates(s);
+        for (int i = first; i < first + numberOfStates; i++) {
+            int state = sets.states.seq[i];
+            int tr = firstTransition(state, label);
+            if (tr != NO) {
+                int last = a.statesTransitions.seq[state] + a.getStateNumberOfTransitions(state);
+                for (; tr < last && a.transitionsLabel.seq[tr] == label; tr++) {
+                    set.add(a.transitionsTo.seq[tr]);
+                }
+            }
+        }
+        if (set.size() == 0) {
+            table[s * alphabet.size + column] = NO;
+            return NO;
+        }
+        long numberOfFlushes = this.numberOfFlushes;
+        int t = enumerate();
+        if (numberOfFlushes == this.numberOfFlushes) {
+            table[s * alphabet.size + column] = t;
+        }
+        return t;
+    }
+
+    /***
+     * Returns the number of the current subset, flushing the cache first if a new subset does not fit in it.
+     */
+    private int enumerate() {
+        int t = num.get(set);
+        if (t == -1) {
+            if (sets.getNumberOfSets() == maxNumberOfSets || sets.states.length + set.size() > maxNumberOfStoredStates) {
+                flush();
+            }
+            t = push();
+        }
+        return t;
+    }
+
+    /***
+     * Returns the first transition of state with the given label or NO.
+     */
+    private int firstTransition(int state, int label) {
+        int low = a.statesTransitions.seq[state];
+        int high = low + a.getStateNumberOfTransitions(state);
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (a.transitionsLabel.seq[middle] < label) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return (low < a.statesTransitions.seq[state] + a.getStateNumberOfTransitions(state)
+                && a.transitionsLabel.seq[low] == label) ? low : NO;
+    }
+
+    private int push() {
+        int s = num.add(set);
+        setsFinality[s] = 0;
+        for (int i = 0; i < set.size(); i++) {
+            if (a.getStateFinality(set.get(i)) != 0) {
+                setsFinality[s] = 1;
+                break;
+            }
+        }
+        return s;
+    }
+
+    private void flush() {
+        Arrays.fill(table, 0, sets.getNumberOfSets() * alphabet.size, UNKNOWN);
+        sets.clear();
+        num.reset();
+        initialSet = NO;
+        numberOfFlushes++;
+    }
+}
@@ -0,0 +1,216 @@
+package org.su.fmi.thesis.automaton;
+
+import org.su.fmi.thesis.automaton.utils.IntSequence;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import static org.su.fmi.thesis.automaton.Automaton.NO;
+
+/***
+ * Sorted automaton queried directly from a memory mapped file.
+ * <p>
+ * The file is little-endian. The header is
+ * magic, version, numberOfStates, numberOfTransitions, numberOfInitialStates, reserved (6 ints)
+ * followed by the byte offsets of the sections (NUMBER_OF_SECTIONS longs).
+ * Every section is an int array aligned to 8 bytes, the sections are
+ * initialStates, statesTransitions, statesFinality, transitionsFrom, transitionsLabel, transitionsTo.
+ * Each section is mapped separately, so a section can not exceed 2GB.
+ */
+public class MappedAutomaton implements Acceptor {
+    public static final int MAGIC = 0x41534652;
+    public static final int VERSION = 1;
+
+    static final int INITIAL_STATES = 0;
+    static final int STATES_TRANSITIONS = 1;
+    static final int STATES_FINALITY = 2;
+    static final int TRANSITIONS_FROM = 3;
+    static final int TRANSITIONS_LABEL = 4;
+    static final int TRANSITIONS_TO = 5;
+    static final int NUMBER_OF_SECTIONS = 6;
+    private static final int HEADER_SIZE = 6 * Integer.BYTES + NUMBER_OF_SECTIONS * Long.BYTES;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private int numberOfStates;
+    private int numberOfTransitions;
+    private IntBuffer initialStates;
+    private IntBuffer statesTransitions;
+    private IntBuffer statesFinality;
+    private IntBuffer transitionsFrom;
+    private IntBuffer transitionsLabel;
+    private IntBuffer transitionsTo;
+
+    public MappedAutomaton(File f) throws IOException {
+        try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Not an automaton file " + f);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Not an automaton file " + f);
+            }
+            int version = header.getInt(Integer.BYTES);
+            if (version != VERSION) {
+                throw new IOException("Unsupported automaton file version " + version + " in " + f);
+            }
+            numberOfStates = header.getInt(2 * Integer.BYTES);
+            numberOfTransitions = header.getInt(3 * Integer.BYTES);
+            int numberOfInitialStates = header.getInt(4 * Integer.BYTES);
+
+            initialStates = map(channel, header, INITIAL_STATES, numberOfInitialStates);
+            statesTransitions = map(channel, header, STATES_TRANSITIONS, numberOfStates);
+            statesFinality = map(channel, header, STATES_FINALITY, numberOfStates);
+            transitionsFrom = map(channel, header, TRANSITIONS_FROM, numberOfTransitions);
+            transitionsLabel = map(channel, header, TRANSITIONS_LABEL, numberOfTransitions);
+            transitionsTo = map(channel, header, TRANSITIONS_TO, numberOfTransitions);
+        }
+    }
+
+    private static IntBuffer map(FileChannel channel, ByteBuffer header, int section, int length) throws IOException {
+        long offset = header.getLong(6 * Integer.BYTES + section * Long.BYTES);
+        long size = (long) length * Integer.BYTES;
+        if (offset < HEADER_SIZE || offset + size > channel.size()) {
+            throw new IOException("Section " + section + " is out of the file bounds");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, size).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    /***
+     * Expects sorted automaton.
+     */
+    public static void write(Automaton a, File f) throws IOException {
+        IntSequence[] sections = new IntSequence[NUMBER_OF_SECTIONS];
+        sections[INITIAL_STATES] = a.initialStates;
+        sections[STATES_TRANSITIONS] = a.statesTransitions;
+        sections[STATES_FINALITY] = a.statesFinality;
+        sections[TRANSITIONS_FROM] = a.transitionsFrom;
+        sections[TRANSITIONS_LABEL] = a.transitionsLabel;
+        sections[TRANSITIONS_TO] = a.transitionsTo;
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(a.getNumberOfStates());
+        header.putInt(a.getNumberOfTransitions());
+        header.putInt(a.initialStates.length);
+        header.putInt(0);
+        long offset = HEADER_SIZE;
+        for (IntSequence section : sections) {
+            header.putLong(offset);
+            offset = align(offset + (long) section.length * Integer.BYTES);
+        }
+        header.flip();
+
+        try (FileChannel channel = FileChannel.open(f.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            IntBuffer ints = buffer.asIntBuffer();
+            for (IntSequence section : sections) {
+                for (int i = 0; i < section.length; ) {
+                    int n = Math.min(ints.capacity(), section.length - i);
+                    ints.clear();
+                    ints.put(section.seq, i, n);
+                    buffer.clear();
+                    buffer.limit(n * Integer.BYTES);
+                    writeFully(channel, buffer);
+                    i += n;
+                }
+                long padding = align(channel.position()) - channel.position();
+                if (padding > 0) {
+                    writeFully(channel, ByteBuffer.allocate((int) padding));
+                }
+            }
+        }
+    }
+
+    private static long align(long offset) {
+        return (offset + Long.BYTES - 1) & ~((long) Long.BYTES - 1);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    public int getNumberOfStates() {
+        return numberOfStates;
+    }
+
+    public int getNumberOfTransitions() {
+        return numberOfTransitions;
+    }
+
+    public int getStateFinality(int state) {
+        return statesFinality.get(state);
+    }
+
+    public int getStateNumberOfTransitions(int state) {
+        return ((state + 1 < numberOfStates) ? statesTransitions.get(state + 1) : numberOfTransitions) - statesTransitions.get(state);
+    }
+
+    /***
+     * Expects deterministic automaton.
+     */
+    public int delta(int state, int label) {
+        int low = statesTransitions.get(state);
+        int high = low + getStateNumberOfTransitions(state) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleLabel = transitionsLabel.get(middle);
+            if (middleLabel < label) {
+                low = middle + 1;
+            } else if (middleLabel > label) {
+                high = middle - 1;
+            } else {
+                return transitionsTo.get(middle);
+            }
+        }
+        return NO;
+    }
+
+    /***
+     * Expects deterministic automaton.
+     */
+    @Override
+    public int accepts(int[] seq, int from, int length) {
+        if (initialStates.limit() == 0) {
+            return 0;
+        }
+        int state = initialStates.get(0);
+        for (int i = from; i < from + length; ++i) {
+            state = delta(state, seq[i]);
+            if (state == NO) {
+                return 0;
+            }
+        }
+        return statesFinality.get(state);
+    }
+
+    /***
+     * Copies the mapped automaton onto the heap.
+     */
+    public Automaton toAutomaton() {
+        Automaton a = new Automaton();
+        copy(initialStates, a.initialStates);
+        copy(statesTransitions, a.statesTransitions);
+        copy(statesFinality, a.statesFinality);
+        copy(transitionsFrom, a.transitionsFrom);
+        copy(transitionsLabel, a.transitionsLabel);
+        copy(transitionsTo, a.transitionsTo);
+        return a;
+    }
+
+    private static void copy(IntBuffer src, IntSequence dst) {
+        int length = src.limit();
+        dst.seq = new int[Math.max(length, 1)];
+        src.duplicate().get(dst.seq, 0, length);
+        dst.length = length;
+    }
+}
@@ -1,9 +1,9 @@
 package org.su.fmi.thesis.automaton;
 
 import org.su.fmi.thesis.automaton.utils.Enumerable;
-import org.su.fmi.thesis.automaton.utils.Enumerator;
 import org.su.fmi.thesis.automaton.utils.FNV1A;
 import org.su.fmi.thesis.automaton.utils.IntSequence;
+import org.su.fmi.thesis.automaton.utils.LinearProbingEnumerator;
 
 import static org.su.fmi.thesis.automaton.Automaton.NO;
 
@@ -12,13 +12,13 @@ class Minimization implements Enumerable<Integer> {
     private int[] statesNewClassNumber;
     private int[] statesNext;
     private IntSequence classesFirstState = new IntSequence();
-    private Enumerator<Integer> num;
+    private LinearProbingEnumerator<Integer> num;
     Automaton a;
     private ClassSplitter classSplitter;
 
     Minimization(Automaton a) {
         this.a = a;
-        this.num = new Enumerator<>(this);
+        this.num = new LinearProbingEnumerator<>(this);
         this.statesClassNumber = new int[a.getNumberOfStates()];
         this.statesNext = new int[a.getNumberOfStates()];
         this.statesNewClassNumber = new int[a.getNumberOfStates()];
@@ -0,0 +1,17 @@
+package org.su.fmi.thesis.automaton;
+
+public enum MinimizationAlgorithm {
+    /***
+     * Splits the classes one transition index at a time until a full pass makes no change.
+     */
+    CLASS_SPLITTING,
+    /***
+     * Partition refinement with a splitter worklist in O(m log n) time.
+     */
+    HOPCROFT,
+    /***
+     * Two fused reverse and determinize passes. Accepts nondeterministic automata,
+     * which saves building the intermediate deterministic automaton.
+     */
+    BRZOZOWSKI
+}
@@ -0,0 +1,250 @@
+package org.su.fmi.thesis.automaton;
+
+import org.su.fmi.thesis.automaton.utils.FNV1A;
+import org.su.fmi.thesis.automaton.utils.IntSequence;
+import org.su.fmi.thesis.automaton.utils.LinearProbingEnumerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.su.fmi.thesis.automaton.Automaton.NO;
+
+/***
+ * Subset construction on several threads.
+ * The subsets are explored level by level. The subsets of a level are shared between the workers,
+ * the new subsets are enumerated by one of STRIPES independently locked enumerators chosen by the subset code.
+ * The subsets get temporary numbers in the order in which they are created. At the end the subsets are
+ * renumbered in breadth first order with the transitions in label order, which is the order of Determinization,
+ * so the result does not depend on the number of threads.
+ */
+public class ParallelDeterminization {
+    private static final int STRIPE_BITS = 6;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+    private static final int CHUNK_SIZE = 64;
+
+    private Automaton a;
+    private int numberOfThreads;
+    private Stripe[] stripes = new Stripe[STRIPES];
+    private AtomicInteger numberOfSets = new AtomicInteger();
+    private Worker[] workers;
+
+    public ParallelDeterminization(Automaton a, int numberOfThreads) {
+        this.a = a;
+        this.numberOfThreads = numberOfThreads;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /***
+     * Expects sorted automaton.
+     */
+    public Automaton determinize() {
+        workers = new Worker[numberOfThreads];
+        for (int i = 0; i < numberOfThreads; i++) {
+            workers[i] = new Worker();
+        }
+        StateSet initial = new StateSet(a.getNumberOfStates());
+        for (int i = 0; i < a.initialStates.length; i++) {
+            initial.add(a.initialStates.seq[i]);
+        }
+        workers[0].push(initial);
+
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+        try {
+            List<int[]> level = workers[0].nextLevel;
+            workers[0].nextLevel = new ArrayList<>();
+            while (!level.isEmpty()) {
+                List<int[]> frontier = level;
+                AtomicInteger next = new AtomicInteger();
+                List<Callable<Void>> tasks = new ArrayList<>(numberOfThreads);
+                for (Worker worker : workers) {
+                    tasks.add(() -> {
+                        int first;
+                        while ((first = next.getAndAdd(CHUNK_SIZE)) < frontier.size()) {
+                            int last = Math.min(frontier.size(), first + CHUNK_SIZE);
+                            for (int i = first; i < last; i++) {
+                                worker.process(frontier.get(i));
+                            }
+                        }
+                        return null;
+                    });
+                }
+                for (Future<Void> future : executor.invokeAll(tasks)) {
+                    future.get();
+                }
+                level = new ArrayList<>();
+                for (Worker worker : workers) {
+                    level.addAll(worker.nextLevel);
+                    worker.nextLevel = new ArrayList<>();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+        return renumber();
+    }
+
+    private Automaton renumber() {
+        int n = numberOfSets.get();
+        int[] setsFinality = new int[n];
+        int[] setsTransitions = new int[n + 1];
+        int numberOfTransitions = 0;
+        for (Worker worker : workers) {
+            for (int i = 0; i < worker.sets.length; i++) {
+                setsFinality[worker.sets.seq[i]] = worker.setsFinality.seq[i];
+            }
+            for (int i = 0; i < worker.transitionsFrom.length; i++) {
+                setsTransitions[worker.transitionsFrom.seq[i] + 1]++;
+            }
+            numberOfTransitions += worker.transitionsFrom.length;
+        }
+        for (int set = 0; set < n; set++) {
+            setsTransitions[set + 1] += setsTransitions[set];
+        }
+        // the transitions of every set are emitted by one worker in label order, so this keeps them sorted
+        int[] labels = new int[numberOfTransitions];
+        int[] targets = new int[numberOfTransitions];
+        int[] position = new int[n];
+        System.arraycopy(setsTransitions, 0, position, 0, n);
+        for (Worker worker : workers) {
+            for (int i = 0; i < worker.transitionsFrom.length; i++) {
+                int tr = position[worker.transitionsFrom.seq[i]]++;
+                labels[tr] = worker.transitionsLabel.seq[i];
+                targets[tr] = worker.transitionsTo.seq[i];
+            }
+        }
+
+        int[] newNumber = new int[n];
+        int[] order = new int[n];
+        for (int set = 0; set < n; set++) {
+            newNumber[set] = NO;
+        }
+        newNumber[0] = 0;
+        order[0] = 0;
+        int numberOfNumbered = 1;
+        for (int head = 0; head < numberOfNumbered; head++) {
+            int set = order[head];
+            for (int tr = setsTransitions[set]; tr < setsTransitions[set + 1]; tr++) {
+                if (newNumber[targets[tr]] == NO) {
+                    newNumber[targets[tr]] = numberOfNumbered;
+                    order[numberOfNumbered++] = targets[tr];
+                }
+            }
+        }
+
+        Automaton result = new Automaton();
+        result.initialStates.add(0);
+        for (int state = 0; state < n; state++) {
+            int set = order[state];
+            result.addState(state);
+            result.setStateFinality(state, setsFinality[set]);
+            for (int tr = setsTransitions[set]; tr < setsTransitions[set + 1]; tr++) {
+                result.addTransition(state, labels[tr], newNumber[targets[tr]]);
+            }
+        }
+        result.initStatesTransitions();
+        return result;
+    }
+
+    /***
+     * Per thread state: the subset being built, the transitions heap and the produced sets and transitions.
+     * The i-th element of sets is a set number and the i-th element of setsFinality is its finality.
+     */
+    private class Worker {
+        private StateSet set = new StateSet(a.getNumberOfStates());
+        private TransitionHeap heap = new TransitionHeap(a);
+        private IntSequence sets = new IntSequence();
+        private IntSequence setsFinality = new IntSequence();
+        private IntSequence transitionsFrom = new IntSequence();
+        private IntSequence transitionsLabel = new IntSequence();
+        private IntSequence transitionsTo = new IntSequence();
+        private List<int[]> nextLevel = new ArrayList<>();
+
+        /***
+         * The first element of subset is its number, the remaining elements are its states.
+         */
+        void process(int[] subset) {
+            int number = subset[0];
+            int finality = 0;
+            heap.clear();
+            for (int i = 1; i < subset.length; i++) {
+                int state = subset[i];
+                if (a.getStateFinality(state) != 0) {
+                    finality = 1;
+                }
+                if (a.getStateNumberOfTransitions(state) != 0) {
+                    heap.push(a.statesTransitions.seq[state]);
+                }
+            }
+            sets.add(number);
+            setsFinality.add(finality);
+
+            int tr, letter = NO;
+            while ((tr = heap.next()) != NO) {
+                if (letter == NO) {
+                    letter = a.transitionsLabel.seq[tr];
+                    set.clear();
+                } else if (letter != a.transitionsLabel.seq[tr]) {
+                    addTransition(number, letter, push(set));
+                    letter = a.transitionsLabel.seq[tr];
+                    set.clear();
+                }
+                set.add(a.transitionsTo.seq[tr]);
+            }
+            if (letter != NO) {
+                addTransition(number, letter, push(set));
+            }
+        }
+
+        private void addTransition(int from, int label, int to) {
+            transitionsFrom.add(from);
+            transitionsLabel.add(label);
+            transitionsTo.add(to);
+        }
+
+        int push(StateSet set) {
+            Stripe stripe = stripes[(set.code() * FNV1A.PRIME) >>> (Integer.SIZE - STRIPE_BITS)];
+            int number;
+            boolean created;
+            synchronized (stripe) {
+                int numberOfStripeSets = stripe.getNumberOfSets();
+                int local = stripe.num.add(set);
+                created = local == numberOfStripeSets;
+                number = stripe.setsNumber.seq[local];
+            }
+            if (created) {
+                int[] subset = new int[set.size() + 1];
+                subset[0] = number;
+                System.arraycopy(set.elements(), 0, subset, 1, set.size());
+                nextLevel.add(subset);
+            }
+            return number;
+        }
+    }
+
+    /***
+     * Part of the enumeration of the subsets. The i-th subset of the stripe has the global number setsNumber[i].
+     */
+    private class Stripe extends StateSetStore {
+        private IntSequence setsNumber = new IntSequence();
+        private LinearProbingEnumerator<StateSet> num = new LinearProbingEnumerator<>(this);
+
+        @Override
+        public int newObject(StateSet stateSet) {
+            setsNumber.add(numberOfSets.getAndIncrement());
+            return super.newObject(stateSet);
+        }
+    }
+}
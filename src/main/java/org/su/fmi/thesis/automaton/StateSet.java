@@ -0,0 +1,97 @@
+package org.su.fmi.thesis.automaton;
+
+import org.su.fmi.thesis.automaton.utils.FNV1A;
+
+import java.util.Arrays;
+
+/***
+ * Set of states of an automaton with numberOfStates states.
+ * For small automata the membership is kept in a sparse set (constant time clear), for large automata
+ * in a dense bitset (numberOfStates / 8 bytes). The elements are kept in insertion order.
+ * The hash code is order independent and is updated on every add, so two sets with the same elements
+ * have the same code regardless of the order in which the elements were added.
+ */
+class StateSet {
+    static final int SPARSE_LIMIT = 1 << 20;
+
+    private int[] sparse;
+    private long[] bits;
+    private int[] elements;
+    private int size;
+    private int code;
+
+    StateSet(int numberOfStates) {
+        if (numberOfStates <= SPARSE_LIMIT) {
+            sparse = new int[numberOfStates];
+        } else {
+            bits = new long[(numberOfStates + 63) >>> 6];
+        }
+        elements = new int[16];
+    }
+
+    boolean add(int state) {
+        if (bits != null) {
+            long mask = 1L << state;
+            if ((bits[state >>> 6] & mask) != 0) {
+                return false;
+            }
+            bits[state >>> 6] |= mask;
+        } else {
+            if (contains(state)) {
+                return false;
+            }
+            sparse[state] = size;
+        }
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, 2 * size);
+        }
+        elements[size++] = state;
+        code += FNV1A.codeAddInt(FNV1A.OFFSET_BASIS, state);
+        return true;
+    }
+
+    boolean contains(int state) {
+        if (bits != null) {
+            return (bits[state >>> 6] & (1L << state)) != 0;
+        }
+        int i = sparse[state];
+        return i < size && elements[i] == state;
+    }
+
+    void clear() {
+        if (bits != null) {
+            for (int i = 0; i < size; i++) {
+                bits[elements[i] >>> 6] = 0;
+            }
+        }
+        size = 0;
+        code = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(int i) {
+        return elements[i];
+    }
+
+    int[] elements() {
+        return elements;
+    }
+
+    /***
+     * Order independent code of the elements, see code(int[], int, int).
+     */
+    int code() {
+        return code;
+    }
+
+    static int code(int[] states, int from, int length) {
+        int code = 0;
+        for (int i = from; i < from + length; i++) {
+            code += FNV1A.codeAddInt(FNV1A.OFFSET_BASIS, states[i]);
+        }
+        return code;
+    }
+}
@@ -0,0 +1,60 @@
+package org.su.fmi.thesis.automaton;
+
+import org.su.fmi.thesis.automaton.utils.Enumerable;
+import org.su.fmi.thesis.automaton.utils.FNV1A;
+import org.su.fmi.thesis.automaton.utils.IntSequence;
+
+/***
+ * Storage of the sets of states enumerated by a LinearProbingEnumerator.
+ * The states of set s are states[setsStates[s]..setsStates[s] + getNumberOfStates(s)) in insertion order,
+ * so the sets are compared by membership and hashed with the order independent code of StateSet.
+ */
+class StateSetStore implements Enumerable<StateSet> {
+    IntSequence setsStates = new IntSequence();
+    IntSequence states = new IntSequence();
+
+    int getNumberOfSets() {
+        return setsStates.length;
+    }
+
+    int getNumberOfStates(int set) {
+        return (set + 1 < getNumberOfSets() ? setsStates.seq[set + 1] : states.length) - setsStates.seq[set];
+    }
+
+    void clear() {
+        setsStates.length = 0;
+        states.length = 0;
+    }
+
+    @Override
+    public boolean equal(StateSet stateSet, int set) {
+        int numberOfStates = getNumberOfStates(set);
+        if (stateSet.size() != numberOfStates) {
+            return false;
+        }
+        for (int i = 0; i < numberOfStates; i++) {
+            if (!stateSet.contains(states.seq[setsStates.seq[set] + i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public long code(StateSet stateSet) {
+        return FNV1A.finalizeCode(stateSet.code());
+    }
+
+    @Override
+    public long codeByIndex(int set) {
+        return FNV1A.finalizeCode(StateSet.code(states.seq, setsStates.seq[set], getNumberOfStates(set)));
+    }
+
+    @Override
+    public int newObject(StateSet stateSet) {
+        int set = getNumberOfSets();
+        setsStates.add(states.length);
+        states.append(stateSet.elements(), 0, stateSet.size());
+        return set;
+    }
+}
@@ -0,0 +1,103 @@
+package org.su.fmi.thesis.automaton;
+
+import org.su.fmi.thesis.automaton.utils.IntSequence;
+
+import static org.su.fmi.thesis.automaton.Automaton.NO;
+
+/***
+ * Merges the transitions of several states of a sorted automaton in the order of their labels.
+ * The heap keeps one transition per state, next() returns the transition with the smallest label
+ * and advances to the following transition of the same state.
+ */
+class TransitionHeap {
+    private Automaton a;
+    private IntSequence heap = new IntSequence();
+
+    TransitionHeap(Automaton a) {
+        this.a = a;
+    }
+
+    void clear() {
+        heap.length = 0;
+    }
+
+    void push(int tr) {
+        int p, c = heap.length;
+        heap.add(tr);
+        while (c > 0) {
+            p = (c - 1) / 2;
+            if (compare(heap.seq[c], heap.seq[p]) < 0) {
+                int tmp = heap.seq[c];
+                heap.seq[c] = heap.seq[p];
+                heap.seq[p] = tmp;
+                c = p;
+            } else {
+                break;
+            }
+        }
+    }
+
+    int next() {
+        if (heap.length == 0) {
+            return NO;
+        }
+        int tr = heap.seq[0];
+        int stateFrom = a.transitionsFrom.seq[tr];
+        if (tr + 1 < a.statesTransitions.seq[stateFrom] + a.getStateNumberOfTransitions(stateFrom)) {
+            heap.seq[0]++;
+            sink();
+            return tr;
+        }
+        heap.length--;
+        if (heap.length == 0) {
+            return tr;
+        }
+        heap.seq[0] = heap.seq[heap.length];
+        sink();
+        return tr;
+    }
+
+    private int compare(int t1, int t2) {
+        return Integer.compare(a.transitionsLabel.seq[t1], a.transitionsLabel.seq[t2]);
+    }
+
+    private void sink() {
+        int c, l, r;
+
+        c = 0;
+        while (true) {
+            l = 2 * c + 1;
+            if (l < heap.length) {
+                r = l + 1;
+                if (r < heap.length) {
+                    if (compare(heap.seq[l], heap.seq[r]) < 0) {
+                        if (compare(heap.seq[l], heap.seq[c]) < 0) {
+                            int tmp = heap.seq[l];
+                            heap.seq[l] = heap.seq[c];
+                            heap.seq[c] = tmp;
+                            c = l;
+                        } else {
+                            break;
+                        }
+                    } else if (compare(heap.seq[c], heap.seq[r]) > 0) {
+                        int tmp = heap.seq[r];
+                        heap.seq[r] = heap.seq[c];
+                        heap.seq[c] = tmp;
+                        c = r;
+                    } else {
+                        break;
+                    }
+                } else if (compare(heap.seq[l], heap.seq[c]) < 0) {
+                    int tmp = heap.seq[l];
+                    heap.seq[l] = heap.seq[c];
+                    heap.seq[c] = tmp;
+                    c = l;
+                } else {
+                    break;
+                }
+            } else {
+                break;
+            }
+        }
+    }
+}
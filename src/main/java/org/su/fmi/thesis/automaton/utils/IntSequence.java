@@ -25,6 +25,12 @@ public class IntSequence extends Sequence {
         }
     }
 
+    public void ensureCapacity(int capacity) {
+        if (seq.length < capacity) {
+            seq = Arrays.copyOf(seq, capacity);
+        }
+    }
+
     public void add(int n) {
         if (length == seq.length) {
             seq = Arrays.copyOf(seq, getNewAlloced());
@@ -53,6 +59,17 @@ public class IntSequence extends Sequence {
         }
     }
 
+    public void append(int[] array, int from, int length) {
+        if (length > 0) {
+            int newLength = this.length + length;
+            if (seq.length < newLength) {
+                seq = Arrays.copyOf(seq, getNewAlloced(newLength));
+            }
+            System.arraycopy(array, from, seq, this.length, length);
+            this.length = newLength;
+        }
+    }
+
     public void append(IntSequence sequence) {
         if (sequence.length > 0) {
             int newLength = length + sequence.length;
@@ -0,0 +1,178 @@
+package org.su.fmi.thesis.automaton.utils;
+
+public class LinearProbingEnumerator<T> {
+    private final static int MIX = 0x9E3779B9;
+    private final static int MIN_HASH_LENGTH = 64;
+    private int[] hash;
+    private int[] codes;
+    private int shift;
+    private Enumerable<T> set;
+    private int numberOfObjects;
+    private IntSequence nonEmptyPositions;
+
+    /* Same mapping as Enumerator, i.e. an injective mapping from a set of objects to {0,1,2,...,numberOfObjects-1},
+     * with the same Enumerable contract, but a different hash table.
+     * The length of the hash array is a power of two and the position of a code is given by its top bits after
+     * a multiplication by the golden ratio. Collisions are resolved by linear probing and the load factor is
+     * kept at most 50%.
+     * The code of every object is cached in the codes array next to its index, so the probing compares codes
+     * before calling equal and the resizing does not call codeByIndex at all.
+     * This class calls
+     * 1. equal(T obj, int index) while searching in the hash table for an index with the same code
+     * 2. code(T obj) once per add, get and delete
+     * 3. void newObject(T obj) when a new object is added in the hash table
+     */
+
+    /**
+     * The hash table is large enough for expectedNumberOfObjects objects without resizing.
+     */
+    public LinearProbingEnumerator(Enumerable<T> set, int expectedNumberOfObjects, boolean fastReset) {
+        this.set = set;
+        int length = MIN_HASH_LENGTH;
+        while (length < 2 * expectedNumberOfObjects && length < (1 << 30)) {
+            length <<= 1;
+        }
+        this.hash = new int[length];
+        for (int i = 0; i < length; i++) {
+            this.hash[i] = -1;
+        }
+        this.codes = new int[length];
+        this.shift = Integer.numberOfLeadingZeros(length) + 1;
+        this.numberOfObjects = 0;
+        if (fastReset) {
+            this.nonEmptyPositions = new IntSequence();
+        } else {
+            this.nonEmptyPositions = null;
+        }
+    }
+
+    public LinearProbingEnumerator(Enumerable<T> set, boolean fastReset) {
+        this(set, 0, fastReset);
+    }
+
+    public LinearProbingEnumerator(Enumerable<T> set) {
+        this(set, 0, false);
+    }
+
+    private int position(int code) {
+        return (code * MIX) >>> shift;
+    }
+
+    /**
+     * Adds an object to the set. Returns the number corresponding to the object.
+     */
+    public int add(T obj) {
+        int code = (int) set.code(obj);
+        int mask = hash.length - 1;
+        int i;
+        for (i = position(code); hash[i] != -1; i = (i + 1) & mask) {
+            if (codes[i] == code && set.equal(obj, hash[i])) {
+                return hash[i];
+            }
+        }
+        int index = set.newObject(obj);
+        hash[i] = index;
+        codes[i] = code;
+        if (nonEmptyPositions != null) {
+            nonEmptyPositions.add(i);
+        }
+        numberOfObjects++;
+        if (2 * ((long) numberOfObjects) > hash.length) {//if the load factor of the hash table is > 50%
+            resize();
+        }
+        return index;
+    }
+
+    private void resize() {
+        int[] oldHash = hash;
+        int[] oldCodes = codes;
+        hash = new int[2 * oldHash.length];
+        for (int i = 0; i < hash.length; i++) {
+            hash[i] = -1;
+        }
+        codes = new int[hash.length];
+        shift--;
+        if (nonEmptyPositions != null) {
+            nonEmptyPositions.length = 0;
+        }
+        int mask = hash.length - 1;
+        for (int s = 0; s < oldHash.length; s++) {
+            if (oldHash[s] != -1) {
+                int i;
+                for (i = position(oldCodes[s]); hash[i] != -1; i = (i + 1) & mask)
+                    ;
+                hash[i] = oldHash[s];
+                codes[i] = oldCodes[s];
+                if (nonEmptyPositions != null) {
+                    nonEmptyPositions.add(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number corresponding to the given object if the given object belongs to the set.
+     * Returns -1 if the given object does not belong to the set.
+     */
+    public int get(T obj) {
+        int code = (int) set.code(obj);
+        int mask = hash.length - 1;
+        for (int i = position(code); hash[i] != -1; i = (i + 1) & mask) {
+            if (codes[i] == code && set.equal(obj, hash[i])) {
+                return hash[i];
+            }
+        }
+        return -1;
+    }
+
+    public void reset() {
+        if (nonEmptyPositions != null) {
+            for (int i = 0; i < nonEmptyPositions.length; i++) {
+                hash[nonEmptyPositions.seq[i]] = -1;
+            }
+            nonEmptyPositions.length = 0;
+        } else {
+            for (int i = 0; i < hash.length; i++) {
+                hash[i] = -1;
+            }
+        }
+        numberOfObjects = 0;
+    }
+
+    /**
+     * Removes the object from the hash table (the storage in Enumerable is not changed).
+     * The following entries of the cluster are shifted back, so no tombstones are needed.
+     */
+    public void delete(T obj) {
+        int code = (int) set.code(obj);
+        int mask = hash.length - 1;
+        int i;
+        for (i = position(code); hash[i] != -1; i = (i + 1) & mask) {
+            if (codes[i] == code && set.equal(obj, hash[i])) {
+                break;
+            }
+        }
+        if (hash[i] == -1) {
+            return;
+        }
+        for (int j = (i + 1) & mask; hash[j] != -1; j = (j + 1) & mask) {
+            // the entry at j can fill the hole at i if its position is not cyclically in (i, j]
+            int k = position(codes[j]);
+            if (((j - k) & mask) >= ((j - i) & mask)) {
+                hash[i] = hash[j];
+                codes[i] = codes[j];
+                i = j;
+            }
+        }
+        hash[i] = -1;
+        numberOfObjects--;
+    }
+
+    public int getNumberOfObjects() {
+        return numberOfObjects;
+    }
+
+    public int getHashLength() {
+        return hash.length;
+    }
+}
@@ -0,0 +1,14 @@
+package org.su.fmi.thesis.clustering;
+
+public enum Assignment {
+    /***
+     * Computes the distances from every vector to all centroids.
+     */
+    FULL,
+    /***
+     * Hamerly's algorithm. Keeps an upper bound of the distance to the assigned centroid and a lower bound of
+     * the distance to all other centroids for every vector, and skips the vectors whose bounds prove that the
+     * assigned centroid is still the closest. Requires a MetricDistance.
+     */
+    HAMERLY
+}
@@ -0,0 +1,107 @@
+package org.su.fmi.thesis.clustering;
+
+import org.su.fmi.thesis.clustering.distances.Distance;
+import org.su.fmi.thesis.clustering.distances.EuclideanDistance;
+import org.su.fmi.thesis.clustering.distances.MahalanobisDistance;
+import org.su.fmi.thesis.clustering.model.Vectors;
+
+import java.util.stream.IntStream;
+
+/***
+ * The K centroids while fitting, row major as in Vectors, and the distance from the vectors to them.
+ * For the mahalanobis distance the vectors are whitened by whiten and the distance is the euclidean distance,
+ * toMatrix then gives the centroids in the original space.
+ */
+class Centroids {
+    final int K;
+    final int D;
+    final double[] values;
+    final Distance distance;
+
+    private MahalanobisDistance whitening;
+
+    Centroids(int K, int D, Distance distance) {
+        this.K = K;
+        this.D = D;
+        this.values = new double[K * D];
+        if (distance instanceof MahalanobisDistance) {
+            whitening = (MahalanobisDistance) distance;
+            distance = new EuclideanDistance();
+        }
+        this.distance = distance;
+    }
+
+    /***
+     * The vectors in the space of the centroids, whitened for the mahalanobis distance.
+     */
+    Vectors whiten(Vectors data) {
+        return (whitening != null) ? whitening.whiten(data) : data;
+    }
+
+    /***
+     * As whiten, but the whitened vectors are written to into, which has the size of data, and share its weights.
+     */
+    Vectors whiten(Vectors data, Vectors into) {
+        if (whitening == null) {
+            return data;
+        }
+        whitening.whiten(data, into.values);
+        into.weights = data.weights;
+        return into;
+    }
+
+    boolean isWhitening() {
+        return whitening != null;
+    }
+
+    int nearest(double[] vectors, int offset) {
+        return nearest(vectors, offset, null, 0);
+    }
+
+    /***
+     * The closest centroid of the vector at offset, also sets distances[index] to the distance to it
+     * unless distances is null.
+     */
+    int nearest(double[] vectors, int offset, double[] distances, int index) {
+        double minDist = Double.MAX_VALUE;
+        int cluster = -1;
+        for (int j = 0; j < K; j++) {
+            double dist = distance.distance(vectors, offset, values, j * D, D);
+            if (dist < minDist) {
+                minDist = dist;
+                cluster = j;
+            }
+        }
+        if (distances != null) {
+            distances[index] = minDist;
+        }
+        return cluster;
+    }
+
+    /***
+     * Sum of the weighted squared distances of the vectors to their centroids, clusters[i] is the centroid
+     * of the i-th vector. Distance.distance is the squared euclidean or standardized distance, and the
+     * mahalanobis distance is the squared euclidean distance of the whitened vectors.
+     */
+    double inertia(Vectors data, int[] clusters) {
+        return IntStream.range(0, data.size()).parallel().mapToDouble(
+                i -> data.weights[i] * distance.distance(data.values, data.offset(i), values, clusters[i] * D, D)
+        ).sum();
+    }
+
+    /***
+     * The centroids in the original space, one row per centroid.
+     */
+    double[][] toMatrix() {
+        double[] unwhitened = values;
+        if (whitening != null) {
+            unwhitened = values.clone();
+            whitening.unwhiten(unwhitened);
+        }
+        double[][] centroids = new double[K][D];
+        for (int k = 0; k < K; k++) {
+            System.arraycopy(unwhitened, k * D, centroids[k], 0, D);
+        }
+        return centroids;
+    }
+}
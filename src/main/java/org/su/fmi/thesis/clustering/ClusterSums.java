@@ -0,0 +1,103 @@
+package org.su.fmi.thesis.clustering;
+
+import org.su.fmi.thesis.clustering.model.Vectors;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/***
+ * Weighted sums of the vectors of every cluster and the total weights of the clusters, row major as the centroids.
+ */
+class ClusterSums {
+    private static final int MIN_CHUNK_SIZE = 1 << 12;
+    private static final int MAX_CHUNKS = 64;
+
+    private int K;
+    private int D;
+    private double[] sums;
+    private long[] weights;
+    private ClusterSums[] partials = new ClusterSums[0];
+
+    ClusterSums(int K, int D) {
+        this.K = K;
+        this.D = D;
+        sums = new double[K * D];
+        weights = new long[K];
+    }
+
+    /***
+     * The sums of the clusters of all vectors, the cluster of the i-th vector is clusters[i].
+     */
+    static ClusterSums of(Vectors data, int[] clusters, int K) {
+        ClusterSums sums = new ClusterSums(K, data.dimension);
+        sums.add(data, clusters);
+        return sums;
+    }
+
+    /***
+     * Adds the vectors to the sums of their clusters, the cluster of the i-th vector is clusters[i].
+     * The vectors are split into at most MAX_CHUNKS chunks which sum their clusters independently and
+     * the partial sums are added in chunk order, so the result does not depend on the number of threads.
+     * The partial sums are kept for the next call.
+     */
+    void add(Vectors data, int[] clusters) {
+        int N = data.size();
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, (N + MAX_CHUNKS - 1) / MAX_CHUNKS);
+        int numberOfChunks = (N + chunkSize - 1) / chunkSize;
+        if (partials.length < numberOfChunks) {
+            int length = partials.length;
+            partials = Arrays.copyOf(partials, numberOfChunks);
+            for (int c = length; c < numberOfChunks; c++) {
+                partials[c] = new ClusterSums(K, D);
+            }
+        }
+        ClusterSums[] chunks = partials;
+        IntStream.range(0, numberOfChunks).parallel().forEach(c -> {
+            chunks[c].reset();
+            chunks[c].add(data, clusters, c * chunkSize, Math.min(N, (c + 1) * chunkSize));
+        });
+        for (int c = 0; c < numberOfChunks; c++) {
+            merge(chunks[c]);
+        }
+    }
+
+    void reset() {
+        Arrays.fill(sums, 0);
+        Arrays.fill(weights, 0);
+    }
+
+    private void add(Vectors data, int[] clusters, int from, int to) {
+        for (int i = from; i < to; i++) {
+            int offset = data.offset(i);
+            int row = clusters[i] * D;
+            int w = data.weights[i];
+            for (int d = 0; d < D; d++) {
+                sums[row + d] += data.values[offset + d] * w;
+            }
+            weights[clusters[i]] += w;
+        }
+    }
+
+    void merge(ClusterSums other) {
+        for (int j = 0; j < K * D; j++) {
+            sums[j] += other.sums[j];
+        }
+        for (int k = 0; k < K; k++) {
+            weights[k] += other.weights[k];
+        }
+    }
+
+    /***
+     * Sets every centroid to the weighted mean of its cluster, a centroid with an empty cluster stays in place.
+     */
+    void means(double[] centroids) {
+        for (int k = 0; k < K; k++) {
+            if (weights[k] == 0) {
+                continue;
+            }
+            for (int d = 0; d < D; d++) {
+                centroids[k * D + d] = sums[k * D + d] / (double) weights[k];
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.su.fmi.thesis.clustering;
+
+import org.su.fmi.thesis.clustering.distances.MetricDistance;
+import org.su.fmi.thesis.clustering.model.Vectors;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/***
+ * Assignment of the vectors to their closest centroids with Hamerly's bounds.
+ * upper[i] is an upper bound of the metric distance from vector i to its centroid and lower[i] is a lower bound
+ * of the distance to every other centroid. When the centroids move the bounds are loosened by the drifts
+ * of the centroids. Vector i keeps its centroid without computing any distance if upper[i] is at most
+ * max(lower[i], half the distance from its centroid to the closest other centroid).
+ */
+class HamerlyAssignment {
+    private Vectors data;
+    private MetricDistance distance;
+    private int N;
+    private int K;
+    private int D;
+
+    private int[] clusters;
+    private double[] upper;
+    private double[] lower;
+    private double[] previousCentroids;
+    private LongAdder numberOfDistances = new LongAdder();
+    // distances from the vectors to the centroids which the bounds proved unnecessary
+    private LongAdder numberOfPrunedDistances = new LongAdder();
+
+    HamerlyAssignment(Vectors data, int K, MetricDistance distance) {
+        this.data = data;
+        this.distance = distance;
+        this.N = data.size();
+        this.K = K;
+        this.D = data.dimension;
+        clusters = new int[N];
+        upper = new double[N];
+        lower = new double[N];
+    }
+
+    long getNumberOfDistances() {
+        return numberOfDistances.sum();
+    }
+
+    long getNumberOfPrunedDistances() {
+        return numberOfPrunedDistances.sum();
+    }
+
+    /***
+     * Returns the closest centroid of every vector. The K centroids are stored row major.
+     */
+    int[] assign(double[] centroids) {
+        if (previousCentroids == null) {
+            IntStream.range(0, N).parallel().forEach(i -> closest(i, centroids));
+        } else {
+            update(centroids);
+        }
+        previousCentroids = centroids.clone();
+        return clusters;
+    }
+
+    private void update(double[] centroids) {
+        // loosen the bounds by the drifts of the centroids
+        double[] drift = new double[K];
+        int maxDrift = 0;
+        for (int j = 0; j < K; j++) {
+            drift[j] = distance.metric(previousCentroids, j * D, centroids, j * D, D);
+            if (drift[j] > drift[maxDrift]) {
+                maxDrift = j;
+            }
+        }
+        double second = 0;
+        for (int j = 0; j < K; j++) {
+            if (j != maxDrift) {
+                second = Math.max(second, drift[j]);
+            }
+        }
+        double[] halfGap = new double[K];
+        for (int j = 0; j < K; j++) {
+            halfGap[j] = Double.MAX_VALUE;
+        }
+        for (int j = 0; j < K; j++) {
+            for (int l = j + 1; l < K; l++) {
+                double d = distance.metric(centroids, j * D, centroids, l * D, D) / 2;
+                halfGap[j] = Math.min(halfGap[j], d);
+                halfGap[l] = Math.min(halfGap[l], d);
+            }
+        }
+        numberOfDistances.add(K + K * (K - 1) / 2);
+
+        double largestDrift = drift[maxDrift];
+        double secondLargestDrift = second;
+        int finalMaxDrift = maxDrift;
+        IntStream.range(0, N).parallel().forEach(i -> {
+            int cluster = clusters[i];
+            upper[i] += drift[cluster];
+            lower[i] -= (cluster == finalMaxDrift) ? secondLargestDrift : largestDrift;
+
+            double bound = Math.max(halfGap[cluster], lower[i]);
+            if (upper[i] <= bound) {
+                numberOfPrunedDistances.add(K);
+                return;
+            }
+            upper[i] = distance.metric(data.values, data.offset(i), centroids, cluster * D, D);
+            numberOfDistances.increment();
+            if (upper[i] <= bound) {
+                numberOfPrunedDistances.add(K - 1);
+                return;
+            }
+            closest(i, centroids);
+        });
+    }
+
+    /***
+     * Computes the distances from vector i to all centroids, sets its closest centroid and both bounds.
+     */
+    private void closest(int i, double[] centroids) {
+        double min = Double.MAX_VALUE;
+        double secondMin = Double.MAX_VALUE;
+        int cluster = -1;
+        for (int j = 0; j < K; j++) {
+            double d = distance.metric(data.values, data.offset(i), centroids, j * D, D);
+            if (d < min) {
+                secondMin = min;
+                min = d;
+                cluster = j;
+            } else if (d < secondMin) {
+                secondMin = d;
+            }
+        }
+        numberOfDistances.add(K);
+        clusters[i] = cluster;
+        upper[i] = min;
+        lower[i] = secondMin;
+    }
+}
@@ -0,0 +1,21 @@
+package org.su.fmi.thesis.clustering;
+
+public enum Initialization {
+    /***
+     * Picks a random vector, then every next centroid is the vector farthest from the centroids picked so far.
+     * The default of KMeans, MiniBatchKMeans and StreamingKMeans.
+     */
+    FARTHEST_POINT,
+    /***
+     * k-means++ (Arthur and Vassilvitskii). Picks a vector with probability proportional to its weight,
+     * then every next centroid is a vector sampled with probability proportional to its weight times its
+     * distance to the closest centroid picked so far. Greedy, the best of 2 + ln K samples is picked.
+     */
+    KMEANS_PLUSPLUS,
+    /***
+     * k-means|| (Bahmani et al., Scalable k-means++). Samples about 2K candidates in each of a few passes over
+     * the vectors, weights every candidate by the vectors closest to it and clusters the candidates to K centroids
+     * with k-means++ and K Means. Evaluates more distances than k-means++, but in a constant number of passes.
+     */
+    KMEANS_PARALLEL
+}
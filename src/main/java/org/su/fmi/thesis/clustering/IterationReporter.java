@@ -0,0 +1,49 @@
+package org.su.fmi.thesis.clustering;
+
+import org.su.fmi.thesis.clustering.metrics.Allocations;
+import org.su.fmi.thesis.clustering.metrics.IterationMetrics;
+import org.su.fmi.thesis.clustering.metrics.KMeansListener;
+
+/***
+ * Gives the metrics of the iterations of one fit to a listener and measures the allocations between them.
+ * Nothing is measured for KMeansListener.NONE.
+ */
+class IterationReporter {
+    private KMeansListener listener;
+    private long start;
+    private long previousAllocatedBytes;
+
+    IterationReporter(KMeansListener listener) {
+        this.listener = listener;
+        start = System.nanoTime();
+        if (isEnabled()) {
+            previousAllocatedBytes = Allocations.allocatedBytes();
+        }
+    }
+
+    /***
+     * Whether the metrics which cost computations, such as the inertia, should be measured.
+     */
+    boolean isEnabled() {
+        return listener != KMeansListener.NONE;
+    }
+
+    void iteration(int iteration, long initializationNanos, long updateNanos, long assignmentNanos, long changes,
+                   double inertia, long distances, long prunedDistances) {
+        if (!isEnabled()) {
+            return;
+        }
+        long allocatedBytes = Allocations.allocatedBytes();
+        listener.iteration(new IterationMetrics(
+                iteration, initializationNanos, updateNanos, assignmentNanos, changes, inertia,
+                distances, prunedDistances,
+                (allocatedBytes < 0) ? -1 : allocatedBytes - previousAllocatedBytes
+        ));
+        // the allocations of the listener are not counted in the next iteration
+        previousAllocatedBytes = Allocations.allocatedBytes();
+    }
+
+    void finished(int numberOfIterations, double inertia) {
+        listener.finished(numberOfIterations, inertia, System.nanoTime() - start);
+    }
+}
@@ -1,20 +1,28 @@
 package org.su.fmi.thesis.clustering;
 
 import org.su.fmi.thesis.clustering.distances.Distance;
+import org.su.fmi.thesis.clustering.distances.MetricDistance;
+import org.su.fmi.thesis.clustering.metrics.KMeansListener;
 import org.su.fmi.thesis.clustering.model.Vectors;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Random;
-import java.util.Set;
 import java.util.stream.IntStream;
 
 public class KMeans {
+    // passes of k-means|| and candidates sampled in every pass per cluster
+    private static final int PARALLEL_ROUNDS = 2;
+    private static final double OVERSAMPLING_FACTOR = 2;
+    // K Means iterations on the k-means|| candidates
+    private static final int MAX_CANDIDATES_ITERATIONS = 100;
 
     public double[][] centroids;
     public int[] clusters;
+    // sum of the weighted squared distances of the vectors to their centroids
+    public double inertia;
+
+    // the centroids while fitting
+    private Centroids current;
 
     private Random random;
 
@@ -26,119 +34,337 @@ public class KMeans {
 
     private Distance distance;
 
+    private HamerlyAssignment hamerly;
+
+    private Initialization seeding = Initialization.FARTHEST_POINT;
+
+    private KMeansListener listener = KMeansListener.NONE;
+    private int numberOfIterations;
+    // full assignments so far and the distance counters after the previous iteration, for the metrics
+    private long numberOfAssignments;
+    private long previousDistances;
+    private long previousPrunedDistances;
+
     KMeans(Vectors data, int K, Distance distance) {
         this(data, K, 666L, distance);
     }
 
     public KMeans(Vectors data, int K, long seed, Distance distance) {
-        this.data = data;
         this.K = K;
-        this.distance = distance;
+        N = data.size();
+        D = data.dimension;
 
-        N = data.weights.length;
-        D = data.vectors[0].length;
+        current = new Centroids(K, D, distance);
+        this.data = current.whiten(data);
+        this.distance = current.distance;
 
         centroids = new double[K][D];
         clusters = new int[N];
         random = new Random(seed);
     }
 
+    public KMeans(Vectors data, int K, long seed, Distance distance, Assignment assignment) {
+        this(data, K, seed, distance);
+        if (assignment == Assignment.HAMERLY) {
+            if (!(this.distance instanceof MetricDistance)) {
+                throw new IllegalArgumentException(distance.displayName() + " is not a metric distance");
+            }
+            hamerly = new HamerlyAssignment(this.data, K, (MetricDistance) this.distance);
+        }
+    }
+
+    public KMeans(Vectors data, int K, long seed, Distance distance, Assignment assignment,
+                  Initialization initialization) {
+        this(data, K, seed, distance, assignment);
+        this.seeding = initialization;
+    }
+
+    public void setListener(KMeansListener listener) {
+        this.listener = listener;
+    }
+
+    /***
+     * Number of iterations of the last fit, without the initialization.
+     */
+    public int getNumberOfIterations() {
+        return numberOfIterations;
+    }
+
+    /***
+     * Number of distance evaluations of the Hamerly assignment so far, -1 for the full assignment.
+     */
+    long getNumberOfDistances() {
+        return (hamerly != null) ? hamerly.getNumberOfDistances() : -1;
+    }
+
     public void fit() {
-        long start = System.currentTimeMillis();
+        IterationReporter reporter = new IterationReporter(listener);
+        countDistances();
 
-        long t0 = System.currentTimeMillis();
+        long t0 = System.nanoTime();
         initialization();
-        System.out.println(
-                "Finished centroids initialization in " + (System.currentTimeMillis() - t0)
-                        + " milliseconds"
-        );
+        long initializationNanos = System.nanoTime() - t0;
 
-        t0 = System.currentTimeMillis();
-        List<Set<Integer>> clusterAssignments = assignment();
-        System.out.println(
-                "Finished initial assignment in " + (System.currentTimeMillis() - t0) + " milliseconds"
-        );
+        t0 = System.nanoTime();
+        assignment();
+        report(reporter, 0, initializationNanos, 0, System.nanoTime() - t0, N);
 
-        while (true) {
-            long t1 = System.currentTimeMillis();
-
-            List<Set<Integer>> oldClusterAssignments = new ArrayList<>(clusterAssignments);
-
-            t0 = System.currentTimeMillis();
-            updateCentroids(clusterAssignments);
-            System.out.println(
-                    "Finished centroids update in " + (System.currentTimeMillis() - t0) + " milliseconds"
-            );
-
-            t0 = System.currentTimeMillis();
-            clusterAssignments = assignment();
-            System.out.println(
-                    "Finished assignment in " + (System.currentTimeMillis() - t0) + " milliseconds"
-            );
-
-            int changes = 0;
-            boolean equals = true;
-            for (int j = 0; j < oldClusterAssignments.size(); j++) {
-                for (Integer i : oldClusterAssignments.get(j)) {
-                    if (!clusterAssignments.get(j).contains(i)) {
-                        changes++;
-                        equals = false;
-                    }
-                }
-            }
-            if (equals) {
+        for (numberOfIterations = 1; ; ++numberOfIterations) {
+            t0 = System.nanoTime();
+            updateCentroids();
+            long updateNanos = System.nanoTime() - t0;
+
+            t0 = System.nanoTime();
+            long changes = assignment();
+            report(reporter, numberOfIterations, 0, updateNanos, System.nanoTime() - t0, changes);
+
+            if (changes == 0) {
                 break;
-            } else {
-                System.out.println(
-                        changes + " changes in " + (System.currentTimeMillis() - t1) + " milliseconds");
             }
         }
 
-        System.out.println(
-                "Finished K Means in " + (System.currentTimeMillis() - start) + " milliseconds"
-        );
+        inertia = current.inertia(data, clusters);
+        centroids = current.toMatrix();
+
+        reporter.finished(numberOfIterations, inertia);
+    }
+
+    private void report(IterationReporter reporter, int iteration, long initializationNanos, long updateNanos,
+                        long assignmentNanos, long changes) {
+        if (!reporter.isEnabled()) {
+            return;
+        }
+        long distances = previousDistances;
+        long prunedDistances = previousPrunedDistances;
+        countDistances();
+        reporter.iteration(iteration, initializationNanos, updateNanos, assignmentNanos, changes,
+                current.inertia(data, clusters),
+                previousDistances - distances, previousPrunedDistances - prunedDistances);
+    }
+
+    /***
+     * Keeps the numbers of distances computed and pruned so far.
+     */
+    private void countDistances() {
+        previousDistances = (hamerly != null) ? hamerly.getNumberOfDistances() : numberOfAssignments * N * K;
+        previousPrunedDistances = (hamerly != null) ? hamerly.getNumberOfPrunedDistances() : 0;
+    }
+
+    /***
+     * The centroids while fitting, or after the initialization, row major.
+     */
+    double[] getCentroidsValues() {
+        return current.values;
+    }
+
+    void initialization() {
+        switch (seeding) {
+            case FARTHEST_POINT:
+                farthestPoint();
+                break;
+            case KMEANS_PARALLEL:
+                kMeansParallel();
+                break;
+            default:
+                kMeansPlusPlus();
+        }
+    }
+
+    private void farthestPoint() {
+        setCentroid(0, random.nextInt(N));
+
+        // distances of data points from nearest centroid
+        double[] distances = new double[N];
+        Arrays.fill(distances, Double.MAX_VALUE);
+        for (int k = 1; k < K; ++k) {
+            updateDistances(distances, null, current.values, k - 1, k);
+
+            // select data point with maximum distance as our next centroid
+            setCentroid(k, argMax(distances));
+        }
+    }
+
+    private void kMeansPlusPlus() {
+        double[] distances = new double[N];
+        Arrays.fill(distances, 1);
+        setCentroid(0, sample(distances));
+        Arrays.fill(distances, Double.MAX_VALUE);
+        updateDistances(distances, null, current.values, 0, 1);
+
+        // greedy k-means++, every next centroid is the best of a few sampled vectors
+        int trials = 2 + (int) Math.log(K);
+        double[] trial = new double[N];
+        double[] best = new double[N];
+        for (int k = 1; k < K; ++k) {
+            int next = -1;
+            double minCost = Double.MAX_VALUE;
+            for (int t = 0; t < trials; ++t) {
+                int index = sample(distances);
+                if (index < 0) {
+                    break;
+                }
+                // only the newest centroid can be closer than the nearest centroid so far
+                closerDistances(distances, index, trial);
+                double cost = cost(trial);
+                if (cost < minCost) {
+                    minCost = cost;
+                    next = index;
+                    double[] swap = best;
+                    best = trial;
+                    trial = swap;
+                }
+            }
 
-        for (int j = 0; j < clusterAssignments.size(); j++) {
-            for (Integer i : clusterAssignments.get(j)) {
-                clusters[i] = j;
+            setCentroid(k, next);
+            if (next < 0) {
+                updateDistances(distances, null, current.values, k, k + 1);
+            } else {
+                double[] swap = distances;
+                distances = best;
+                best = swap;
             }
         }
     }
 
-    private void initialization() {
-        // k-means++
+    private void kMeansParallel() {
+        double[] distances = new double[N];
+        Arrays.fill(distances, 1);
+        int[] closest = new int[N];
+        double[] candidates = new double[(int) (1 + PARALLEL_ROUNDS * OVERSAMPLING_FACTOR * K) * D];
+        int numberOfCandidates = 0;
+
+        int first = sample(distances);
+        System.arraycopy(data.values, data.offset(first < 0 ? random.nextInt(N) : first), candidates, 0, D);
+        ++numberOfCandidates;
+        Arrays.fill(distances, Double.MAX_VALUE);
+        updateDistances(distances, closest, candidates, 0, numberOfCandidates);
+
+        double oversampling = OVERSAMPLING_FACTOR * K;
+        for (int round = 0; round < PARALLEL_ROUNDS; ++round) {
+            double cost = cost(distances);
+            if (!(cost > 0)) {
+                break;
+            }
+
+            // every vector is a candidate with probability min(1, oversampling * weight * distance / cost)
+            int from = numberOfCandidates;
+            for (int i = 0; i < N; ++i) {
+                if (random.nextDouble() * cost < oversampling * data.weights[i] * distances[i]) {
+                    if ((numberOfCandidates + 1) * D > candidates.length) {
+                        candidates = Arrays.copyOf(candidates, 2 * candidates.length);
+                    }
+                    System.arraycopy(data.values, data.offset(i), candidates, numberOfCandidates * D, D);
+                    ++numberOfCandidates;
+                }
+            }
+            updateDistances(distances, closest, candidates, from, numberOfCandidates);
+        }
 
-        int numberOfClusters = 0;
-        int index = random.nextInt(N);
-        System.arraycopy(data.vectors[index], 0, centroids[numberOfClusters], 0, D);
-        ++numberOfClusters;
+        // too few candidates, when most of the vectors are equal
+        while (numberOfCandidates < K) {
+            int next = sample(distances);
+            if ((numberOfCandidates + 1) * D > candidates.length) {
+                candidates = Arrays.copyOf(candidates, 2 * candidates.length);
+            }
+            System.arraycopy(data.values, data.offset(next < 0 ? random.nextInt(N) : next), candidates,
+                    numberOfCandidates * D, D);
+            ++numberOfCandidates;
+            updateDistances(distances, closest, candidates, numberOfCandidates - 1, numberOfCandidates);
+        }
 
-        // compute remaining k - 1 centroids
-        while (numberOfClusters < K) {
+        long[] candidatesWeights = new long[numberOfCandidates];
+        for (int i = 0; i < N; ++i) {
+            candidatesWeights[closest[i]] += data.weights[i];
+        }
+        int[] weights = new int[numberOfCandidates];
+        for (int c = 0; c < numberOfCandidates; ++c) {
+            weights[c] = (int) Math.min(Integer.MAX_VALUE, candidatesWeights[c]);
+        }
 
-            // distances of data points from nearest centroid
-            double[] distances = new double[N];
+        KMeans kMeans = new KMeans(
+                new Vectors(Arrays.copyOf(candidates, numberOfCandidates * D), D, weights),
+                K, random.nextLong(), distance
+        );
+        kMeans.kMeansPlusPlus();
+        kMeans.assignment();
+        for (int iteration = 0; iteration < MAX_CANDIDATES_ITERATIONS; ++iteration) {
+            kMeans.updateCentroids();
+            if (kMeans.assignment() == 0) {
+                break;
+            }
+        }
+        System.arraycopy(kMeans.current.values, 0, current.values, 0, K * D);
+    }
 
-            int finalNumberOfClusters = numberOfClusters;
-            IntStream.range(0, N).parallel().forEach(i -> {
-                // compute minimum distance to previously selected centroids
-                double minDist = Double.MAX_VALUE;
+    private void setCentroid(int k, int index) {
+        // no vector is left to sample when all vectors coincide with the centroids
+        if (index < 0) {
+            index = random.nextInt(N);
+        }
+        System.arraycopy(data.values, data.offset(index), current.values, k * D, D);
+    }
 
-                for (int j = 0; j < finalNumberOfClusters; ++j) {
-                    double dist = distance.distance(data.vectors[i], centroids[j]);
-                    if (dist < minDist) {
-                        minDist = dist;
+    /***
+     * Lowers distances[i] to the distance from the i-th vector to the centers from, from + 1, ..., to - 1, which
+     * are stored row major, and sets closest[i] to the index of the closer center unless closest is null.
+     */
+    private void updateDistances(double[] distances, int[] closest, double[] centers, int from, int to) {
+        IntStream.range(0, N).parallel().forEach(i -> {
+            for (int j = from; j < to; ++j) {
+                double dist = distance.distance(data.values, data.offset(i), centers, j * D, D);
+                if (dist < distances[i]) {
+                    distances[i] = dist;
+                    if (closest != null) {
+                        closest[i] = j;
                     }
                 }
+            }
+        });
+    }
 
-                distances[i] = minDist;
-            });
+    /***
+     * The distances lowered to the distances from the vectors to the index-th vector.
+     */
+    private void closerDistances(double[] distances, int index, double[] closer) {
+        int offset = data.offset(index);
+        IntStream.range(0, N).parallel().forEach(i -> closer[i] = Math.min(
+                distances[i], distance.distance(data.values, data.offset(i), data.values, offset, D)
+        ));
+    }
 
-            // select data point with maximum distance as our next centroid
-            int nextCentroid = argMax(distances);
-            System.arraycopy(data.vectors[nextCentroid], 0, centroids[numberOfClusters], 0, D);
-            ++numberOfClusters;
+    private double cost(double[] distances) {
+        double cost = 0;
+        for (int i = 0; i < N; ++i) {
+            cost += data.weights[i] * distances[i];
+        }
+        return cost;
+    }
+
+    /***
+     * A vector sampled with probability proportional to its weight times its distance,
+     * -1 if all these products are 0.
+     */
+    private int sample(double[] distances) {
+        double cost = cost(distances);
+        if (!(cost > 0)) {
+            return -1;
+        }
+
+        double r = random.nextDouble() * cost;
+        double cumulative = 0;
+        int last = -1;
+        for (int i = 0; i < N; ++i) {
+            double p = data.weights[i] * distances[i];
+            if (p > 0) {
+                cumulative += p;
+                last = i;
+                if (cumulative > r) {
+                    return i;
+                }
+            }
         }
+        // rounding of the cumulative sum
+        return last;
     }
 
     private int argMax(double[] distances) {
@@ -155,43 +381,39 @@ public class KMeans {
         return argMax;
     }
 
-    private List<Set<Integer>> assignment() {
-        List<Set<Integer>> clusterAssignments = new ArrayList<>(K);
-        for (int i = 0; i < K; i++) {
-            clusterAssignments.add(Collections.synchronizedSet(new HashSet<>()));
+    /***
+     * Assigns every vector to its closest centroid. Returns the number of vectors whose cluster has changed.
+     */
+    private long assignment() {
+        if (hamerly != null) {
+            int[] closest = hamerly.assign(current.values);
+            long changes = 0;
+            for (int i = 0; i < N; i++) {
+                if (clusters[i] != closest[i]) {
+                    clusters[i] = closest[i];
+                    changes++;
+                }
+            }
+            return changes;
         }
 
-        IntStream.range(0, N).parallel().forEach(
+        ++numberOfAssignments;
+        return IntStream.range(0, N).parallel().mapToLong(
                 i -> {
-                    double minDist = Double.MAX_VALUE;
-                    int cluster = -1;
-
-                    for (int j = 0; j < K; j++) {
-                        double dist = distance.distance(data.vectors[i], centroids[j]);
-
-                        if (dist < minDist) {
-                            minDist = dist;
-                            cluster = j;
-                        }
+                    int cluster = current.nearest(data.values, data.offset(i));
+                    if (clusters[i] == cluster) {
+                        return 0;
                     }
-
-                    clusterAssignments.get(cluster).add(i);
+                    clusters[i] = cluster;
+                    return 1;
                 }
-        );
-        return clusterAssignments;
-    }
-
-    private void updateCentroids(List<Set<Integer>> clusterAssignments) {
-        IntStream.range(0, K).parallel().forEach(
-                k -> IntStream.range(0, D).parallel().forEach(
-                        d -> {
-                            double sum = clusterAssignments.get(k).parallelStream()
-                                    .map(i -> data.vectors[i][d] * data.weights[i]).reduce(0d, Double::sum);
-                            int count = clusterAssignments.get(k).parallelStream()
-                                    .map(i -> data.weights[i]).reduce(0, Integer::sum);
-                            centroids[k][d] = sum / (double) count;
-                        }
-                )
-        );
+        ).sum();
+    }
+
+    /***
+     * Every centroid becomes the weighted mean of its cluster, a centroid with an empty cluster stays in place.
+     */
+    private void updateCentroids() {
+        ClusterSums.of(data, clusters, K).means(current.values);
     }
 }
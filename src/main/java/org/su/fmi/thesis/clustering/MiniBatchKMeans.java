@@ -0,0 +1,188 @@
+package org.su.fmi.thesis.clustering;
+
+import org.su.fmi.thesis.clustering.distances.Distance;
+import org.su.fmi.thesis.clustering.metrics.KMeansListener;
+import org.su.fmi.thesis.clustering.model.Vectors;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/***
+ * Mini-batch K Means (Sculley, Web-scale k-means clustering).
+ * Every iteration draws batchSize random vectors, assigns them to their closest centroids and moves each centroid
+ * towards its vectors with the learning rate w / (total weight assigned to the centroid so far), where w is the
+ * weight of the vector. The centroids are initialized by the KMeans initialization on 3 * batchSize random vectors.
+ * The fit stops after maxIterations batches, or earlier when the smoothed inertia of the batches has not improved
+ * for maxNoImprovement batches in a row. At the end all vectors are assigned once to the final centroids.
+ */
+public class MiniBatchKMeans {
+    public static final int DEFAULT_MAX_ITERATIONS = 1000;
+    public static final int DEFAULT_MAX_NO_IMPROVEMENT = 10;
+
+    public double[][] centroids;
+    public int[] clusters;
+    // sum of the weighted squared distances of the vectors to their centroids
+    public double inertia;
+
+    private Random random;
+
+    private int N;
+    private int K;
+    private int D;
+    private int batchSize;
+    private int maxIterations = DEFAULT_MAX_ITERATIONS;
+    private int maxNoImprovement = DEFAULT_MAX_NO_IMPROVEMENT;
+    private int numberOfIterations;
+
+    private Initialization initialization = Initialization.FARTHEST_POINT;
+
+    private KMeansListener listener = KMeansListener.NONE;
+
+    private Vectors data;
+
+    // the centroids while fitting
+    private Centroids current;
+    // total weight of the batch vectors assigned to every centroid so far
+    private double[] centroidsWeights;
+
+    public MiniBatchKMeans(Vectors data, int K, long seed, Distance distance, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive, got " + batchSize);
+        }
+        this.K = K;
+        this.batchSize = batchSize;
+
+        N = data.size();
+        D = data.dimension;
+
+        current = new Centroids(K, D, distance);
+        this.data = current.whiten(data);
+
+        centroids = new double[K][D];
+        centroidsWeights = new double[K];
+        clusters = new int[N];
+        random = new Random(seed);
+    }
+
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    public void setMaxNoImprovement(int maxNoImprovement) {
+        this.maxNoImprovement = maxNoImprovement;
+    }
+
+    /***
+     * The KMeans initialization of the centroids on the sample, FARTHEST_POINT unless set.
+     */
+    public void setInitialization(Initialization initialization) {
+        this.initialization = initialization;
+    }
+
+    public int getNumberOfIterations() {
+        return numberOfIterations;
+    }
+
+    /***
+     * Receives the initialization as iteration 0 and then every batch. The labels of the batch vectors are
+     * kept in clusters while fitting, so changes counts the batch vectors whose cluster has changed or which
+     * are labeled for the first time.
+     */
+    public void setListener(KMeansListener listener) {
+        this.listener = listener;
+    }
+
+    public void fit() {
+        IterationReporter reporter = new IterationReporter(listener);
+
+        long t0 = System.nanoTime();
+        initialization();
+        reporter.iteration(0, System.nanoTime() - t0, 0, 0, 0, Double.NaN, 0, 0);
+
+        // no vector is labeled before its first batch
+        Arrays.fill(clusters, -1);
+        int[] batch = new int[batchSize];
+        int[] closest = new int[batchSize];
+        double[] distances = new double[batchSize];
+        // the smoothing of the inertia averages over about two passes over the data
+        double alpha = Math.min(1d, 2d * batchSize / (N + 1));
+        double smoothedInertia = Double.NaN;
+        double bestInertia = Double.MAX_VALUE;
+        int noImprovement = 0;
+
+        for (numberOfIterations = 0; numberOfIterations < maxIterations; ) {
+            t0 = System.nanoTime();
+            for (int b = 0; b < batchSize; b++) {
+                batch[b] = random.nextInt(N);
+            }
+            IntStream.range(0, batchSize).parallel().forEach(
+                    b -> closest[b] = current.nearest(data.values, data.offset(batch[b]), distances, b)
+            );
+            long assignmentNanos = System.nanoTime() - t0;
+
+            t0 = System.nanoTime();
+            long changes = 0;
+            double batchInertia = 0;
+            double batchWeight = 0;
+            for (int b = 0; b < batchSize; b++) {
+                int i = batch[b];
+                if (clusters[i] != closest[b]) {
+                    clusters[i] = closest[b];
+                    changes++;
+                }
+                int w = data.weights[i];
+                if (w == 0) {
+                    continue;
+                }
+                batchInertia += w * distances[b];
+                batchWeight += w;
+
+                int row = closest[b] * D;
+                int offset = data.offset(i);
+                centroidsWeights[closest[b]] += w;
+                double eta = w / centroidsWeights[closest[b]];
+                for (int d = 0; d < D; d++) {
+                    current.values[row + d] += eta * (data.values[offset + d] - current.values[row + d]);
+                }
+            }
+            numberOfIterations++;
+            reporter.iteration(numberOfIterations, 0, System.nanoTime() - t0, assignmentNanos, changes,
+                    batchInertia, (long) batchSize * K, 0);
+
+            if (batchWeight > 0) {
+                batchInertia /= batchWeight;
+                smoothedInertia = Double.isNaN(smoothedInertia)
+                        ? batchInertia : (1 - alpha) * smoothedInertia + alpha * batchInertia;
+            }
+            if (smoothedInertia < bestInertia) {
+                bestInertia = smoothedInertia;
+                noImprovement = 0;
+            } else if (++noImprovement >= maxNoImprovement) {
+                break;
+            }
+        }
+
+        IntStream.range(0, N).parallel().forEach(i -> clusters[i] = current.nearest(data.values, data.offset(i)));
+        inertia = current.inertia(data, clusters);
+        centroids = current.toMatrix();
+
+        reporter.finished(numberOfIterations, inertia);
+    }
+
+    private void initialization() {
+        int sampleSize = Math.max(K, Math.min(N, 3 * batchSize));
+        double[] values = new double[sampleSize * D];
+        int[] weights = new int[sampleSize];
+        for (int s = 0; s < sampleSize; s++) {
+            int i = (sampleSize == N) ? s : random.nextInt(N);
+            System.arraycopy(data.values, data.offset(i), values, s * D, D);
+            weights[s] = data.weights[i];
+        }
+
+        KMeans kMeans = new KMeans(new Vectors(values, D, weights), K, random.nextLong(), current.distance,
+                Assignment.FULL, initialization);
+        kMeans.initialization();
+        System.arraycopy(kMeans.getCentroidsValues(), 0, current.values, 0, K * D);
+    }
+}
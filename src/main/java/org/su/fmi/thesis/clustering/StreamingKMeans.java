@@ -0,0 +1,217 @@
+package org.su.fmi.thesis.clustering;
+
+import org.su.fmi.thesis.clustering.distances.Distance;
+import org.su.fmi.thesis.clustering.metrics.KMeansListener;
+import org.su.fmi.thesis.clustering.model.VectorStream;
+import org.su.fmi.thesis.clustering.model.Vectors;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/***
+ * K Means over a VectorStream, for vectors which do not fit in the memory.
+ * The memory is bounded by the chunk size of the stream and the sample size, it does not depend on the number
+ * of vectors. The centroids are initialized by the KMeans initialization on a uniform sample of sampleSize vectors
+ * (reservoir sampling in the first pass). Every following pass assigns the vectors of each chunk to their closest
+ * centroids and adds them to the sums of their clusters, and the new centroids are the means of the clusters.
+ * The labels of the vectors are not kept, the fit stops when a pass does not move any centroid, which is
+ * when no label has changed, or after maxIterations passes. The labels are then produced by assign.
+ */
+public class StreamingKMeans {
+    public static final int DEFAULT_SAMPLE_SIZE = 1 << 14;
+    public static final int DEFAULT_MAX_ITERATIONS = 300;
+
+    public double[][] centroids;
+    // sum of the weighted squared distances of the vectors to the centroids before the last pass
+    public double inertia;
+
+    private Random random;
+
+    private int K;
+    private int D;
+    private int sampleSize = DEFAULT_SAMPLE_SIZE;
+    private int maxIterations = DEFAULT_MAX_ITERATIONS;
+    private int numberOfIterations;
+
+    private Initialization initialization = Initialization.FARTHEST_POINT;
+
+    private KMeansListener listener = KMeansListener.NONE;
+
+    private VectorStream data;
+
+    // the centroids while fitting, the chunks are whitened by it
+    private Centroids current;
+
+    // buffers of the passes, sized for the largest chunk and kept between the passes
+    private int[] clusters = new int[0];
+    private double[] distances = new double[0];
+    // the whitened chunks, the full chunks and the shorter last chunk of a pass have their own
+    private Vectors whitened;
+    private Vectors whitenedLast;
+
+    public StreamingKMeans(VectorStream data, int K, long seed, Distance distance) {
+        this.data = data;
+        this.K = K;
+
+        D = data.dimension();
+        current = new Centroids(K, D, distance);
+
+        centroids = new double[K][D];
+        random = new Random(seed);
+    }
+
+    public void setSampleSize(int sampleSize) {
+        this.sampleSize = sampleSize;
+    }
+
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    /***
+     * The KMeans initialization of the centroids on the sample, FARTHEST_POINT unless set.
+     */
+    public void setInitialization(Initialization initialization) {
+        this.initialization = initialization;
+    }
+
+    public int getNumberOfIterations() {
+        return numberOfIterations;
+    }
+
+    /***
+     * Receives the initialization as iteration 0 and then every pass. The assignment time of a pass includes
+     * reading the stream and summing the clusters. The labels are not kept, so changes is -1.
+     */
+    public void setListener(KMeansListener listener) {
+        this.listener = listener;
+    }
+
+    public void fit() throws IOException {
+        IterationReporter reporter = new IterationReporter(listener);
+
+        long t0 = System.nanoTime();
+        initialization();
+        reporter.iteration(0, System.nanoTime() - t0, 0, 0, -1, Double.NaN, 0, 0);
+
+        ClusterSums sums = new ClusterSums(K, D);
+        double[] previous = new double[K * D];
+        for (numberOfIterations = 0; numberOfIterations < maxIterations; ) {
+            t0 = System.nanoTime();
+            sums.reset();
+            double passInertia = 0;
+            long numberOfVectors = 0;
+            data.rewind();
+            Vectors chunk;
+            while ((chunk = next()) != null) {
+                passInertia += assignment(chunk);
+                sums.add(chunk, clusters);
+                numberOfVectors += chunk.size();
+            }
+            inertia = passInertia;
+            long assignmentNanos = System.nanoTime() - t0;
+
+            t0 = System.nanoTime();
+            System.arraycopy(current.values, 0, previous, 0, K * D);
+            sums.means(current.values);
+            numberOfIterations++;
+            reporter.iteration(numberOfIterations, 0, System.nanoTime() - t0, assignmentNanos, -1, passInertia,
+                    numberOfVectors * K, 0);
+            if (Arrays.equals(previous, current.values)) {
+                break;
+            }
+        }
+
+        centroids = current.toMatrix();
+
+        reporter.finished(numberOfIterations, inertia);
+    }
+
+    /***
+     * One more pass which gives the cluster of every vector to labels, in the order of the stream.
+     */
+    public void assign(IntConsumer labels) throws IOException {
+        data.rewind();
+        Vectors chunk;
+        while ((chunk = next()) != null) {
+            assignment(chunk);
+            for (int i = 0; i < chunk.size(); i++) {
+                labels.accept(clusters[i]);
+            }
+        }
+    }
+
+    private Vectors next() throws IOException {
+        Vectors chunk = data.next();
+        if (chunk == null || !current.isWhitening()) {
+            return chunk;
+        }
+        if (whitened == null || whitened.size() == chunk.size()) {
+            whitened = whitenedBuffer(whitened, chunk);
+            return current.whiten(chunk, whitened);
+        }
+        whitenedLast = whitenedBuffer(whitenedLast, chunk);
+        return current.whiten(chunk, whitenedLast);
+    }
+
+    private Vectors whitenedBuffer(Vectors buffer, Vectors chunk) {
+        return (buffer != null && buffer.size() == chunk.size())
+                ? buffer : new Vectors(new double[chunk.values.length], D, chunk.weights);
+    }
+
+    /***
+     * Sets the closest centroid of every vector of the chunk to clusters. Returns the inertia of the chunk.
+     */
+    private double assignment(Vectors chunk) {
+        if (clusters.length < chunk.size()) {
+            clusters = new int[chunk.size()];
+            distances = new double[chunk.size()];
+        }
+        int[] clusters = this.clusters;
+        double[] distances = this.distances;
+        IntStream.range(0, chunk.size()).parallel().forEach(
+                i -> clusters[i] = current.nearest(chunk.values, chunk.offset(i), distances, i)
+        );
+        double inertia = 0;
+        for (int i = 0; i < chunk.size(); i++) {
+            inertia += chunk.weights[i] * distances[i];
+        }
+        return inertia;
+    }
+
+    /***
+     * Reservoir sampling of sampleSize vectors in one pass and the KMeans initialization on the sample.
+     */
+    private void initialization() throws IOException {
+        int sampleSize = Math.max(K, this.sampleSize);
+        double[] values = new double[sampleSize * D];
+        int[] weights = new int[sampleSize];
+        long seen = 0;
+        data.rewind();
+        Vectors chunk;
+        while ((chunk = next()) != null) {
+            for (int i = 0; i < chunk.size(); i++, seen++) {
+                long s = (seen < sampleSize) ? seen : (long) (random.nextDouble() * (seen + 1));
+                if (s < sampleSize) {
+                    System.arraycopy(chunk.values, chunk.offset(i), values, (int) s * D, D);
+                    weights[(int) s] = chunk.weights[i];
+                }
+            }
+        }
+        if (seen < K) {
+            throw new IllegalArgumentException(seen + " vectors can not form " + K + " clusters");
+        }
+        if (seen < sampleSize) {
+            values = Arrays.copyOf(values, (int) seen * D);
+            weights = Arrays.copyOf(weights, (int) seen);
+        }
+
+        KMeans kMeans = new KMeans(new Vectors(values, D, weights), K, random.nextLong(), current.distance,
+                Assignment.FULL, initialization);
+        kMeans.initialization();
+        System.arraycopy(kMeans.getCentroidsValues(), 0, current.values, 0, K * D);
+    }
+}
@@ -1,7 +1,19 @@
 package org.su.fmi.thesis.clustering.distances;
 
+/***
+ * Dissimilarity of two vectors, smaller is closer.
+ * EuclideanDistance and StandardizedEuclideanDistance return the squared distances, which order the pairs
+ * as the distances and are cheaper. MahalanobisDistance returns the distance itself, not squared.
+ * MetricDistance.metric is the distance itself for all of them.
+ */
 public interface Distance {
     double distance(double[] v1, double[] v2);
 
+    /***
+     * Distance between values1[offset1, offset1 + dimension) and values2[offset2, offset2 + dimension),
+     * e.g. between two rows of the flat arrays of Vectors.
+     */
+    double distance(double[] values1, int offset1, double[] values2, int offset2, int dimension);
+
     String displayName();
 }
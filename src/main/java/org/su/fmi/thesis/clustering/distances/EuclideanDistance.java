@@ -1,16 +1,27 @@
 package org.su.fmi.thesis.clustering.distances;
 
-public class EuclideanDistance implements Distance {
+import static org.su.fmi.thesis.clustering.distances.Utils.squaredEuclidean;
+
+public class EuclideanDistance implements MetricDistance {
 
     @Override
     public double distance(double[] v1, double[] v2) {
-        double dist = 0;
+        return squaredEuclidean(v1, 0, v2, 0, v1.length);
+    }
+
+    @Override
+    public double distance(double[] values1, int offset1, double[] values2, int offset2, int dimension) {
+        return squaredEuclidean(values1, offset1, values2, offset2, dimension);
+    }
 
-        for (int d = 0; d < v1.length; ++d) {
-            dist += Math.pow(v1[d] - v2[d], 2);
-        }
+    @Override
+    public double metric(double[] v1, double[] v2) {
+        return Math.sqrt(distance(v1, v2));
+    }
 
-        return dist;
+    @Override
+    public double metric(double[] values1, int offset1, double[] values2, int offset2, int dimension) {
+        return Math.sqrt(squaredEuclidean(values1, offset1, values2, offset2, dimension));
     }
 
     @Override
@@ -0,0 +1,121 @@
+package org.su.fmi.thesis.clustering.distances;
+
+/***
+ * P * A = L * U with partial pivoting, in O(n^3).
+ * L (with unit diagonal, not stored) and U are stored together in lu and row i of lu is row pivot[i] of A.
+ */
+class LUDecomposition {
+    private int n;
+    private double[][] lu;
+    private int[] pivot;
+    private int pivotSign;
+    private boolean singular;
+
+    LUDecomposition(double[][] matrix) {
+        n = matrix.length;
+        if (n != matrix[0].length) {
+            throw new RuntimeException("Matrix is not squared");
+        }
+
+        lu = new double[n][];
+        pivot = new int[n];
+        for (int i = 0; i < n; ++i) {
+            lu[i] = matrix[i].clone();
+            pivot[i] = i;
+        }
+        pivotSign = 1;
+
+        for (int k = 0; k < n; ++k) {
+            int p = k;
+            for (int i = k + 1; i < n; ++i) {
+                if (Math.abs(lu[i][k]) > Math.abs(lu[p][k])) {
+                    p = i;
+                }
+            }
+            if (p != k) {
+                double[] row = lu[p];
+                lu[p] = lu[k];
+                lu[k] = row;
+                int index = pivot[p];
+                pivot[p] = pivot[k];
+                pivot[k] = index;
+                pivotSign = -pivotSign;
+            }
+            if (lu[k][k] == 0) {
+                singular = true;
+                continue;
+            }
+
+            double[] pivotRow = lu[k];
+            for (int i = k + 1; i < n; ++i) {
+                double[] row = lu[i];
+                double factor = row[k] / pivotRow[k];
+                row[k] = factor;
+                if (factor != 0) {
+                    for (int j = k + 1; j < n; ++j) {
+                        row[j] -= factor * pivotRow[j];
+                    }
+                }
+            }
+        }
+    }
+
+    boolean isSingular() {
+        return singular;
+    }
+
+    double determinant() {
+        double determinant = pivotSign;
+        for (int i = 0; i < n; ++i) {
+            determinant *= lu[i][i];
+        }
+        return determinant;
+    }
+
+    /***
+     * Solves A * X = I column by column with forward and back substitution.
+     */
+    double[][] inverse() {
+        if (singular) {
+            throw new RuntimeException("Matrix is degenerate");
+        }
+
+        double[][] inverse = new double[n][n];
+        double[] column = new double[n];
+        for (int j = 0; j < n; ++j) {
+            for (int i = 0; i < n; ++i) {
+                double sum = (pivot[i] == j) ? 1 : 0;
+                for (int k = 0; k < i; ++k) {
+                    sum -= lu[i][k] * column[k];
+                }
+                column[i] = sum;
+            }
+            for (int i = n - 1; i >= 0; --i) {
+                double sum = column[i];
+                for (int k = i + 1; k < n; ++k) {
+                    sum -= lu[i][k] * column[k];
+                }
+                column[i] = sum / lu[i][i];
+            }
+            for (int i = 0; i < n; ++i) {
+                inverse[i][j] = column[i];
+            }
+        }
+        return inverse;
+    }
+
+    /***
+     * Maximum absolute column sum.
+     */
+    static double norm1(double[][] matrix) {
+        double norm = 0;
+        for (int j = 0; j < matrix[0].length; ++j) {
+            double sum = 0;
+            for (double[] row : matrix) {
+                sum += Math.abs(row[j]);
+            }
+            norm = Math.max(norm, sum);
+        }
+        return norm;
+    }
+}
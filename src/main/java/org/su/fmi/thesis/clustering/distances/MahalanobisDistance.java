@@ -1,31 +1,123 @@
 package org.su.fmi.thesis.clustering.distances;
 
-import static org.su.fmi.thesis.clustering.distances.Utils.multiply;
-import static org.su.fmi.thesis.clustering.distances.Utils.subtract;
-import static org.su.fmi.thesis.clustering.distances.Utils.transpose;
+import org.su.fmi.thesis.clustering.model.Vectors;
 
-@SuppressWarnings("all")
-public class MahalanobisDistance implements Distance {
+import static org.su.fmi.thesis.clustering.distances.Utils.cholesky;
 
-    private double[][] inverseCovarianceMatrix;
+/***
+ * sqrt((x - y)^T S (x - y)) where S is the inverse covariance matrix.
+ * S is factored once as L * L^T, so the distance is the euclidean distance between the whitened vectors L^T x
+ * and L^T y. KMeans whitens the data once and then computes only euclidean distances.
+ */
+public class MahalanobisDistance implements MetricDistance {
+
+    private int dimension;
+    // U = L^T, upper triangular and row major
+    private double[] whitening;
 
     public MahalanobisDistance(double[][] inverseCovarianceMatrix) {
-        this.inverseCovarianceMatrix = inverseCovarianceMatrix;
+        dimension = inverseCovarianceMatrix.length;
+        double[][] l = cholesky(inverseCovarianceMatrix);
+        whitening = new double[dimension * dimension];
+        for (int i = 0; i < dimension; ++i) {
+            for (int k = i; k < dimension; ++k) {
+                whitening[i * dimension + k] = l[k][i];
+            }
+        }
+    }
+
+    /***
+     * The vectors multiplied by L^T, with the same weights.
+     */
+    public Vectors whiten(Vectors vectors) {
+        if (vectors.dimension != dimension) {
+            throw new RuntimeException("Dimensions must be equals");
+        }
+        double[] whitened = new double[vectors.values.length];
+        whiten(vectors, whitened);
+        return new Vectors(whitened, dimension, vectors.weights);
+    }
+
+    /***
+     * Writes the whitened vectors row major to whitened, which has place for at least all of them.
+     */
+    public void whiten(Vectors vectors, double[] whitened) {
+        if (vectors.dimension != dimension) {
+            throw new RuntimeException("Dimensions must be equals");
+        }
+        for (int offset = 0; offset < vectors.values.length; offset += dimension) {
+            whiten(vectors.values, offset, whitened, offset);
+        }
+    }
+
+    /***
+     * Solves L^T x = w for every whitened vector w stored row major in whitened, in place.
+     */
+    public void unwhiten(double[] whitened) {
+        for (int offset = 0; offset < whitened.length; offset += dimension) {
+            for (int i = dimension - 1; i >= 0; --i) {
+                int r = i * dimension;
+                double sum = whitened[offset + i];
+                for (int k = i + 1; k < dimension; ++k) {
+                    sum -= whitening[r + k] * whitened[offset + k];
+                }
+                whitened[offset + i] = sum / whitening[r + i];
+            }
+        }
+    }
+
+    private void whiten(double[] values, int offset, double[] whitened, int whitenedOffset) {
+        for (int i = 0; i < dimension; ++i) {
+            int r = i * dimension;
+            double sum = 0;
+            for (int k = i; k < dimension; ++k) {
+                sum += whitening[r + k] * values[offset + k];
+            }
+            whitened[whitenedOffset + i] = sum;
+        }
     }
 
     @Override
     public double distance(double[] x, double[] y) {
 
-        if (x.length != inverseCovarianceMatrix.length) {
+        if (x.length != dimension) {
+            throw new RuntimeException("Dimensions must be equals");
+        }
+        if (y.length != dimension) {
             throw new RuntimeException("Dimensions must be equals");
         }
-        if (y.length != inverseCovarianceMatrix.length) {
+
+        return distance(x, 0, y, 0, dimension);
+    }
+
+    /***
+     * Length of L^T (x - y), prefer whiten and EuclideanDistance for many distances between the same vectors.
+     */
+    @Override
+    public double distance(double[] values1, int offset1, double[] values2, int offset2, int dimension) {
+        if (dimension != this.dimension) {
             throw new RuntimeException("Dimensions must be equals");
         }
+        double sum = 0;
+        for (int i = 0; i < dimension; ++i) {
+            int r = i * dimension;
+            double whitened = 0;
+            for (int k = i; k < dimension; ++k) {
+                whitened += whitening[r + k] * (values1[offset1 + k] - values2[offset2 + k]);
+            }
+            sum += whitened * whitened;
+        }
+        return Math.sqrt(sum);
+    }
 
-        double[][] s = subtract(x, y);
-        double[][] d = multiply(multiply(s, inverseCovarianceMatrix), transpose(s));
-        return Math.sqrt(d[0][0]);
+    @Override
+    public double metric(double[] v1, double[] v2) {
+        return distance(v1, v2);
+    }
+
+    @Override
+    public double metric(double[] values1, int offset1, double[] values2, int offset2, int dimension) {
+        return distance(values1, offset1, values2, offset2, dimension);
     }
 
     @Override
@@ -0,0 +1,14 @@
+package org.su.fmi.thesis.clustering.distances;
+
+/***
+ * Distance which is a metric, or a strictly increasing function of a metric (e.g. the squared euclidean distance).
+ * The metric satisfies the triangle inequality, which allows KMeans to skip distance evaluations.
+ */
+public interface MetricDistance extends Distance {
+    /***
+     * The metric, which orders the pairs of vectors in the same way as distance.
+     */
+    double metric(double[] v1, double[] v2);
+
+    double metric(double[] values1, int offset1, double[] values2, int offset2, int dimension);
+}
@@ -0,0 +1,149 @@
+package org.su.fmi.thesis.clustering.distances;
+
+import java.util.stream.IntStream;
+
+/***
+ * Weighted mean and co-moments of vectors. The vectors are split into chunks which fit in the cache,
+ * every chunk is read twice in a row (the mean, then the centered co-moments) and the chunks are merged
+ * pairwise with the online update of Chan et al., so the data is streamed from memory once.
+ * The co-moment of the coordinates x <= y is comoment[x * dimension + y], only the upper triangle is filled,
+ * or only the diagonal for the variances.
+ * The weights are frequencies, i.e. a vector with weight w counts as w equal vectors.
+ */
+class Moments {
+    private static final int CHUNK_SIZE = 1 << 10;
+
+    private int dimension;
+    private boolean diagonal;
+    private double weight;
+    private double[] mean;
+    private double[] comoment;
+    private double[] delta;
+
+    Moments(int dimension, boolean diagonal) {
+        if (dimension < 1) {
+            throw new IllegalArgumentException("Dimension must be positive, got " + dimension);
+        }
+        this.dimension = dimension;
+        this.diagonal = diagonal;
+        this.mean = new double[dimension];
+        this.comoment = new double[diagonal ? dimension : dimension * dimension];
+        this.delta = new double[dimension];
+    }
+
+    /***
+     * Moments of the vectors stored row major in values, weights null means weight 1 for every vector.
+     * Chunks of CHUNK_SIZE vectors are accumulated in parallel and merged in order, so the result does not
+     * depend on the number of threads.
+     */
+    static Moments of(double[] values, int dimension, int[] weights, boolean diagonal) {
+        Moments moments = new Moments(dimension, diagonal);
+        int n = values.length / dimension;
+        int numberOfChunks = (n + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        Moments[] chunks = new Moments[numberOfChunks];
+        IntStream.range(0, numberOfChunks).parallel().forEach(c -> {
+            Moments chunk = new Moments(dimension, diagonal);
+            chunk.add(values, weights, c * CHUNK_SIZE, Math.min(n, (c + 1) * CHUNK_SIZE));
+            chunks[c] = chunk;
+        });
+
+        for (Moments chunk : chunks) {
+            moments.merge(chunk);
+        }
+        return moments;
+    }
+
+    /***
+     * Sets the moments of the vectors from, from + 1, ..., to - 1.
+     */
+    private void add(double[] values, int[] weights, int from, int to) {
+        for (int i = from; i < to; ++i) {
+            double w = (weights == null) ? 1 : weights[i];
+            weight += w;
+            for (int x = 0; x < dimension; ++x) {
+                mean[x] += w * values[i * dimension + x];
+            }
+        }
+        if (weight == 0) {
+            return;
+        }
+        for (int x = 0; x < dimension; ++x) {
+            mean[x] /= weight;
+        }
+
+        for (int i = from; i < to; ++i) {
+            double w = (weights == null) ? 1 : weights[i];
+            int offset = i * dimension;
+            for (int x = 0; x < dimension; ++x) {
+                delta[x] = values[offset + x] - mean[x];
+            }
+            if (diagonal) {
+                for (int x = 0; x < dimension; ++x) {
+                    comoment[x] += w * delta[x] * delta[x];
+                }
+            } else {
+                for (int x = 0; x < dimension; ++x) {
+                    double d = w * delta[x];
+                    int row = x * dimension;
+                    for (int y = x; y < dimension; ++y) {
+                        comoment[row + y] += d * delta[y];
+                    }
+                }
+            }
+        }
+    }
+
+    void merge(Moments other) {
+        if (other.weight == 0) {
+            return;
+        }
+        if (weight == 0) {
+            weight = other.weight;
+            System.arraycopy(other.mean, 0, mean, 0, dimension);
+            System.arraycopy(other.comoment, 0, comoment, 0, comoment.length);
+            return;
+        }
+        double total = weight + other.weight;
+        double factor = weight * other.weight / total;
+        for (int x = 0; x < dimension; ++x) {
+            delta[x] = other.mean[x] - mean[x];
+        }
+        if (diagonal) {
+            for (int x = 0; x < dimension; ++x) {
+                comoment[x] += other.comoment[x] + delta[x] * delta[x] * factor;
+            }
+        } else {
+            for (int x = 0; x < dimension; ++x) {
+                int row = x * dimension;
+                for (int y = x; y < dimension; ++y) {
+                    comoment[row + y] += other.comoment[row + y] + delta[x] * delta[y] * factor;
+                }
+            }
+        }
+        for (int x = 0; x < dimension; ++x) {
+            mean[x] += delta[x] * other.weight / total;
+        }
+        weight = total;
+    }
+
+    /***
+     * The sample covariance matrix, the co-moments divided by the total weight - 1.
+     */
+    double[][] covarianceMatrix() {
+        double[][] covarianceMatrix = new double[dimension][dimension];
+        for (int x = 0; x < dimension; ++x) {
+            for (int y = x; y < dimension; ++y) {
+                covarianceMatrix[x][y] = covarianceMatrix[y][x] = comoment[x * dimension + y] / (weight - 1);
+            }
+        }
+        return covarianceMatrix;
+    }
+
+    double[] variances() {
+        double[] variances = new double[dimension];
+        for (int x = 0; x < dimension; ++x) {
+            variances[x] = (diagonal ? comoment[x] : comoment[x * dimension + x]) / (weight - 1);
+        }
+        return variances;
+    }
+}
@@ -1,24 +1,54 @@
 package org.su.fmi.thesis.clustering.distances;
 
+import org.su.fmi.thesis.clustering.model.VectorStream;
+import org.su.fmi.thesis.clustering.model.Vectors;
+
+import java.io.IOException;
+
 import static org.su.fmi.thesis.clustering.distances.Utils.variances;
+import static org.su.fmi.thesis.clustering.distances.Utils.weightedSquaredEuclidean;
 
-public class StandardizedEuclideanDistance implements Distance {
+public class StandardizedEuclideanDistance implements MetricDistance {
 
-    private double[] variancesVector;
+    private double[] inverseVariances;
 
     public StandardizedEuclideanDistance(double[][] vectors) {
-        variancesVector = variances(vectors);
+        this(variances(vectors));
+    }
+
+    public StandardizedEuclideanDistance(Vectors vectors) {
+        this(variances(vectors.values, vectors.dimension, vectors.weights));
+    }
+
+    public StandardizedEuclideanDistance(VectorStream vectors) throws IOException {
+        this(variances(vectors));
+    }
+
+    private StandardizedEuclideanDistance(double[] variancesVector) {
+        inverseVariances = new double[variancesVector.length];
+        for (int d = 0; d < variancesVector.length; ++d) {
+            inverseVariances[d] = 1 / variancesVector[d];
+        }
     }
 
     @Override
     public double distance(double[] v1, double[] v2) {
-        double dist = 0;
+        return weightedSquaredEuclidean(v1, 0, v2, 0, inverseVariances, v1.length);
+    }
 
-        for (int d = 0; d < v1.length; ++d) {
-            dist += (Math.pow(v1[d] - v2[d], 2) / variancesVector[d]);
-        }
+    @Override
+    public double distance(double[] values1, int offset1, double[] values2, int offset2, int dimension) {
+        return weightedSquaredEuclidean(values1, offset1, values2, offset2, inverseVariances, dimension);
+    }
 
-        return dist;
+    @Override
+    public double metric(double[] v1, double[] v2) {
+        return Math.sqrt(distance(v1, v2));
+    }
+
+    @Override
+    public double metric(double[] values1, int offset1, double[] values2, int offset2, int dimension) {
+        return Math.sqrt(distance(values1, offset1, values2, offset2, dimension));
     }
 
     @Override
@@ -1,29 +1,38 @@
 package org.su.fmi.thesis.clustering.distances;
 
+import org.su.fmi.thesis.clustering.model.VectorStream;
+import org.su.fmi.thesis.clustering.model.Vectors;
+
+import java.io.IOException;
 import java.util.Arrays;
 
 public class Utils {
 
-    static double covariance(double[][] vectors, double[] mean, int x, int y) {
-        double sum = 0d;
-        for (int n = 0; n < vectors.length; ++n) {
-            sum += ((vectors[n][x] - mean[x]) * (vectors[n][y] - mean[y]));
+    /***
+     * Squared euclidean distance between a[aOffset, aOffset + dimension) and b[bOffset, bOffset + dimension).
+     * A plain counted loop without calls, which the JIT unrolls and keeps free of range checks.
+     */
+    static double squaredEuclidean(double[] a, int aOffset, double[] b, int bOffset, int dimension) {
+        double sum = 0;
+        int delta = bOffset - aOffset;
+        for (int d = aOffset; d < aOffset + dimension; ++d) {
+            double difference = a[d] - b[d + delta];
+            sum += difference * difference;
         }
-        return sum / (vectors.length - 1);
+        return sum;
     }
 
-    static double[] getMean(double[][] vectors) {
-        double[] mean = new double[vectors[0].length];
-
-        for (int x = 0; x < vectors[0].length; ++x) {
-            double sum = 0d;
-            for (int n = 0; n < vectors.length; ++n) {
-                sum += vectors[n][x];
-            }
-            mean[x] = sum / vectors.length;
+    /***
+     * Same as squaredEuclidean with the d-th squared difference multiplied by weights[d].
+     */
+    static double weightedSquaredEuclidean(double[] a, int aOffset, double[] b, int bOffset, double[] weights,
+                                           int dimension) {
+        double sum = 0;
+        for (int d = 0; d < dimension; ++d) {
+            double difference = a[aOffset + d] - b[bOffset + d];
+            sum += difference * difference * weights[d];
         }
-
-        return mean;
+        return sum;
     }
 
     static double[][] subtract(double[] x, double[] y) {
@@ -56,32 +65,78 @@ public class Utils {
         return matrix;
     }
 
-    public static boolean nonDegenerate(double[][] matrix) {
-        if (matrix.length != matrix[0].length) {
-            return false;
-        }
-
-        double detMatrix = determinant(matrix);
+    /***
+     * Reciprocal condition numbers 1 / (||A|| * ||A^-1||) below this are treated as degenerate.
+     */
+    private static final double MIN_RECIPROCAL_CONDITION = 1e-12;
 
-        return !(Math.abs(detMatrix) <= Math.pow(10, -15));
+    /***
+     * The matrix is square, its LU decomposition has no zero pivot and it is not too ill-conditioned
+     * (1-norm condition number), unlike a bound on the determinant this does not depend on the scale of the matrix.
+     */
+    public static boolean nonDegenerate(double[][] matrix) {
+        return inverseOrNull(matrix) != null;
     }
 
     public static double[][] inverseMatrix(double[][] matrix) {
-        if (!nonDegenerate(matrix)) {
+        double[][] inverse = inverseOrNull(matrix);
+        if (inverse == null) {
             throw new RuntimeException("Matrix is degenerate");
         }
+        return inverse;
+    }
 
-        double detMatrix = determinant(matrix);
+    /***
+     * The inverse of the matrix or null if the matrix is degenerate, see nonDegenerate.
+     * Both come from one LU decomposition, so check and invert with this instead of nonDegenerate and inverseMatrix.
+     */
+    public static double[][] inverseOrNull(double[][] matrix) {
+        if (matrix.length != matrix[0].length) {
+            return null;
+        }
 
-        double[][] transposedCofactorMatrix;
+        LUDecomposition lu = new LUDecomposition(matrix);
+        if (lu.isSingular()) {
+            return null;
+        }
+        double[][] inverse = lu.inverse();
+        return wellConditioned(matrix, inverse) ? inverse : null;
+    }
 
-        if (matrix.length == 1) {
-            transposedCofactorMatrix = new double[][]{{1}};
-        } else {
-            transposedCofactorMatrix = transpose(cofactor(matrix));
+    private static boolean wellConditioned(double[][] matrix, double[][] inverse) {
+        double reciprocalCondition = 1 / (LUDecomposition.norm1(matrix) * LUDecomposition.norm1(inverse));
+        return reciprocalCondition >= MIN_RECIPROCAL_CONDITION;
+    }
+
+    /***
+     * Lower triangular L with L * L^T = matrix, for a symmetric positive definite matrix.
+     */
+    static double[][] cholesky(double[][] matrix) {
+        int n = matrix.length;
+        if (n != matrix[0].length) {
+            throw new RuntimeException("Matrix is not squared");
         }
 
-        return multiplyByScalar(transposedCofactorMatrix, 1.0 / detMatrix);
+        double[][] l = new double[n][n];
+        for (int j = 0; j < n; ++j) {
+            double diagonal = matrix[j][j];
+            for (int k = 0; k < j; ++k) {
+                diagonal -= l[j][k] * l[j][k];
+            }
+            if (!(diagonal > 0)) {
+                throw new RuntimeException("Matrix is not positive definite");
+            }
+            l[j][j] = Math.sqrt(diagonal);
+
+            for (int i = j + 1; i < n; ++i) {
+                double sum = matrix[i][j];
+                for (int k = 0; k < j; ++k) {
+                    sum -= l[i][k] * l[j][k];
+                }
+                l[i][j] = sum / l[j][j];
+            }
+        }
+        return l;
     }
 
     static double[][] multiplyByScalar(double[][] matrix, double v) {
@@ -108,18 +163,6 @@ public class Utils {
         return transposed;
     }
 
-    static double[][] cofactor(double[][] matrix) {
-        double[][] cofactorMatrix = new double[matrix.length][matrix[0].length];
-
-        for (int i = 0; i < matrix.length; i++) {
-            for (int j = 0; j < matrix[0].length; j++) {
-                cofactorMatrix[i][j] = sign(i) * sign(j) * determinant(minor(matrix, i, j));
-            }
-        }
-
-        return cofactorMatrix;
-    }
-
     static double sign(int i) {
         return (i % 2 == 0) ? 1d : -1d;
     }
@@ -137,12 +180,7 @@ public class Utils {
             return (matrix[0][0] * matrix[1][1]) - (matrix[0][1] * matrix[1][0]);
         }
 
-        double sum = 0d;
-        for (int i = 0; i < matrix[0].length; i++) {
-            sum += sign(i) * matrix[0][i] * determinant(minor(matrix, 0, i));
-        }
-
-        return sum;
+        return new LUDecomposition(matrix).determinant();
     }
 
     static double[][] minor(double[][] matrix, int excludedRow, int excludedColumn) {
@@ -176,26 +214,59 @@ public class Utils {
     }
 
     public static double[][] covarianceMatrix(double[][] vectors) {
-        double[] mean = getMean(vectors);
+        return covarianceMatrix(flatten(vectors), vectors[0].length, null);
+    }
 
-        double[][] covarianceMatrix = new double[vectors[0].length][vectors[0].length];
-        for (int x = 0; x < vectors[0].length; ++x) {
-            for (int y = x; y < vectors[0].length; ++y) {
-                covarianceMatrix[x][y] = covarianceMatrix[y][x] = covariance(vectors, mean, x, y);
-            }
+    /***
+     * Sample covariance matrix of the weighted vectors, a vector with weight w counts as w equal vectors.
+     */
+    public static double[][] covarianceMatrix(Vectors vectors) {
+        return covarianceMatrix(vectors.values, vectors.dimension, vectors.weights);
+    }
+
+    /***
+     * One parallel pass over the vectors stored row major in values, weights null means weight 1 for every vector.
+     */
+    public static double[][] covarianceMatrix(double[] values, int dimension, int[] weights) {
+        return Moments.of(values, dimension, weights, false).covarianceMatrix();
+    }
+
+    /***
+     * One pass over the stream, the moments of the chunks are merged in the order of the stream.
+     */
+    public static double[][] covarianceMatrix(VectorStream vectors) throws IOException {
+        return moments(vectors, false).covarianceMatrix();
+    }
+
+    public static double[] variances(VectorStream vectors) throws IOException {
+        return moments(vectors, true).variances();
+    }
+
+    private static Moments moments(VectorStream vectors, boolean diagonal) throws IOException {
+        Moments moments = new Moments(vectors.dimension(), diagonal);
+        vectors.rewind();
+        Vectors chunk;
+        while ((chunk = vectors.next()) != null) {
+            moments.merge(Moments.of(chunk.values, chunk.dimension, chunk.weights, diagonal));
         }
-        return covarianceMatrix;
+        return moments;
     }
 
     static double[] variances(double[][] vectors) {
-        double[] mean = getMean(vectors);
+        return variances(flatten(vectors), vectors[0].length, null);
+    }
 
-        double[] variancesVector = new double[vectors[0].length];
-        for (int x = 0; x < vectors[0].length; ++x) {
-            variancesVector[x] = covariance(vectors, mean, x, x);
-        }
+    static double[] variances(double[] values, int dimension, int[] weights) {
+        return Moments.of(values, dimension, weights, true).variances();
+    }
 
-        return variancesVector;
+    private static double[] flatten(double[][] vectors) {
+        int dimension = vectors[0].length;
+        double[] values = new double[vectors.length * dimension];
+        for (int n = 0; n < vectors.length; ++n) {
+            System.arraycopy(vectors[n], 0, values, n * dimension, dimension);
+        }
+        return values;
     }
 
     static void print(double[][] matrix) {
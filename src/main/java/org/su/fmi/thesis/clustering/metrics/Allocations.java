@@ -0,0 +1,32 @@
+package org.su.fmi.thesis.clustering.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+public class Allocations {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /***
+     * Bytes allocated so far by the live threads of the JVM, -1 if the JVM does not measure them.
+     * The allocations of the threads which have terminated are not counted, so the difference of two calls is
+     * approximate: it misses the threads which terminate in between (e.g. idle ForkJoinPool workers)
+     * and it is negative if they had allocated more than the other threads in between.
+     */
+    public static long allocatedBytes() {
+        if (!(THREADS instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+        if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+
+        long allocatedBytes = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) {
+                allocatedBytes += bytes;
+            }
+        }
+        return allocatedBytes;
+    }
+}
@@ -0,0 +1,23 @@
+package org.su.fmi.thesis.clustering.metrics;
+
+import java.io.Writer;
+
+/***
+ * Writes a header line and then the metrics of every iteration as a line of comma separated values.
+ */
+public class CsvMetricsWriter extends MetricsWriter {
+    static final String HEADER = "iteration,initializationNanos,updateNanos,assignmentNanos,changes,inertia,"
+            + "distances,prunedDistances,allocatedBytes";
+
+    public CsvMetricsWriter(Writer writer) {
+        super(writer);
+        writeLine(HEADER);
+    }
+
+    @Override
+    public void iteration(IterationMetrics metrics) {
+        writeLine(metrics.iteration + "," + metrics.initializationNanos + "," + metrics.updateNanos + ","
+                + metrics.assignmentNanos + "," + metrics.changes + "," + metrics.inertia + ","
+                + metrics.distances + "," + metrics.prunedDistances + "," + metrics.allocatedBytes);
+    }
+}
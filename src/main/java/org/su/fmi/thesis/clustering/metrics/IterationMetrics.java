@@ -0,0 +1,38 @@
+package org.su.fmi.thesis.clustering.metrics;
+
+/***
+ * What one iteration of a fit has done. Iteration 0 is the initialization of the centroids, and for KMeans also
+ * the first assignment of the vectors. Every following iteration is an assignment and an update of the centroids,
+ * of all vectors for KMeans, of a batch for MiniBatchKMeans and of a pass over the stream for StreamingKMeans.
+ */
+public class IterationMetrics {
+    public final int iteration;
+    public final long initializationNanos;
+    public final long updateNanos;
+    public final long assignmentNanos;
+    // vectors whose cluster has changed, all vectors in iteration 0 of KMeans, -1 if the labels are not kept
+    public final long changes;
+    // sum of the weighted squared distances of the assigned vectors to their centroids, NaN without assignment
+    public final double inertia;
+    // distances computed by the assignment, between vectors and centroids or between centroids
+    public final long distances;
+    // distances from vectors to centroids which the bounds of the Hamerly assignment proved unnecessary
+    public final long prunedDistances;
+    // bytes allocated by the threads of the JVM during the iteration, -1 if the JVM does not measure them.
+    // Approximate and can be negative when a thread terminates during the iteration, see Allocations.allocatedBytes
+    public final long allocatedBytes;
+
+    public IterationMetrics(int iteration, long initializationNanos, long updateNanos, long assignmentNanos,
+                            long changes, double inertia, long distances, long prunedDistances,
+                            long allocatedBytes) {
+        this.iteration = iteration;
+        this.initializationNanos = initializationNanos;
+        this.updateNanos = updateNanos;
+        this.assignmentNanos = assignmentNanos;
+        this.changes = changes;
+        this.inertia = inertia;
+        this.distances = distances;
+        this.prunedDistances = prunedDistances;
+        this.allocatedBytes = allocatedBytes;
+    }
+}
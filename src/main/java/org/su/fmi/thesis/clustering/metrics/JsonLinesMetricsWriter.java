@@ -0,0 +1,38 @@
+package org.su.fmi.thesis.clustering.metrics;
+
+import java.io.Writer;
+
+/***
+ * Writes the metrics of every iteration and the end of the fit as JSON objects, one per line.
+ * The event field of the objects is iteration or finished.
+ */
+public class JsonLinesMetricsWriter extends MetricsWriter {
+
+    public JsonLinesMetricsWriter(Writer writer) {
+        super(writer);
+    }
+
+    @Override
+    public void iteration(IterationMetrics metrics) {
+        writeLine("{\"event\":\"iteration\",\"iteration\":" + metrics.iteration
+                + ",\"initializationNanos\":" + metrics.initializationNanos
+                + ",\"updateNanos\":" + metrics.updateNanos
+                + ",\"assignmentNanos\":" + metrics.assignmentNanos
+                + ",\"changes\":" + metrics.changes
+                + ",\"inertia\":" + number(metrics.inertia)
+                + ",\"distances\":" + metrics.distances
+                + ",\"prunedDistances\":" + metrics.prunedDistances
+                + ",\"allocatedBytes\":" + metrics.allocatedBytes + "}");
+    }
+
+    @Override
+    public void finished(int numberOfIterations, double inertia, long nanos) {
+        writeLine("{\"event\":\"finished\",\"iterations\":" + numberOfIterations
+                + ",\"inertia\":" + number(inertia) + ",\"nanos\":" + nanos + "}");
+    }
+
+    // JSON has no NaN and infinities
+    private static String number(double value) {
+        return (Double.isNaN(value) || Double.isInfinite(value)) ? "null" : String.valueOf(value);
+    }
+}
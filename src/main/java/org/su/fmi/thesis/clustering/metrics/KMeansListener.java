@@ -0,0 +1,22 @@
+package org.su.fmi.thesis.clustering.metrics;
+
+/***
+ * Receives the metrics of the fit of KMeans, MiniBatchKMeans or StreamingKMeans after every iteration
+ * and once at the end.
+ */
+public interface KMeansListener {
+    /***
+     * Ignores the metrics. The inertia and the allocations of the iterations are not measured for it.
+     */
+    KMeansListener NONE = new KMeansListener() {
+    };
+
+    default void iteration(IterationMetrics metrics) {
+    }
+
+    /***
+     * The fit has converged after numberOfIterations iterations, in nanos nanoseconds.
+     */
+    default void finished(int numberOfIterations, double inertia, long nanos) {
+    }
+}
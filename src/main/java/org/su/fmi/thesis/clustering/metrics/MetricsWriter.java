@@ -0,0 +1,32 @@
+package org.su.fmi.thesis.clustering.metrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/***
+ * Writes the metrics line by line and flushes every line, so they can be read while KMeans is fitting.
+ */
+abstract class MetricsWriter implements KMeansListener, Closeable {
+    private Writer writer;
+
+    MetricsWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    void writeLine(String line) {
+        try {
+            writer.write(line);
+            writer.write('\n');
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,46 @@
+package org.su.fmi.thesis.clustering.model;
+
+/***
+ * Vectors which are in the memory, returned in chunks of chunkSize vectors.
+ */
+public class InMemoryVectorStream implements VectorStream {
+    private Vectors vectors;
+    private int chunkSize;
+    private int next;
+
+    public InMemoryVectorStream(Vectors vectors, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive, got " + chunkSize);
+        }
+        this.vectors = vectors;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public int dimension() {
+        return vectors.dimension;
+    }
+
+    @Override
+    public void rewind() {
+        next = 0;
+    }
+
+    @Override
+    public Vectors next() {
+        if (next == vectors.size()) {
+            return null;
+        }
+        int size = Math.min(chunkSize, vectors.size() - next);
+        double[] values = new double[size * vectors.dimension];
+        System.arraycopy(vectors.values, vectors.offset(next), values, 0, values.length);
+        int[] weights = new int[size];
+        System.arraycopy(vectors.weights, next, weights, 0, size);
+        next += size;
+        return new Vectors(values, vectors.dimension, weights);
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,23 @@
+package org.su.fmi.thesis.clustering.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/***
+ * Sequential access to weighted vectors in chunks, for vectors which do not fit in the memory at once.
+ * Every pass returns the same vectors in the same order.
+ */
+public interface VectorStream extends Closeable {
+    int dimension();
+
+    /***
+     * Starts a new pass from the first vector.
+     */
+    void rewind() throws IOException;
+
+    /***
+     * The next chunk of the pass or null at the end of the pass.
+     * The returned Vectors may be overwritten by the next call.
+     */
+    Vectors next() throws IOException;
+}
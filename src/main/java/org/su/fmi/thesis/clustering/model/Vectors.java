@@ -1,11 +1,62 @@
 package org.su.fmi.thesis.clustering.model;
 
+/***
+ * N weighted vectors of dimension D stored row major in one array,
+ * i.e. the d-th coordinate of the i-th vector is values[i * dimension + d].
+ */
 public class Vectors {
-    public double[][] vectors;
+    public double[] values;
+    public int dimension;
     public int[] weights;
 
-    public Vectors(double[][] vectors, int[] weights) {
-        this.vectors = vectors;
+    public Vectors(double[] values, int dimension, int[] weights) {
+        if ((long) weights.length * dimension != values.length) {
+            throw new IllegalArgumentException(
+                    values.length + " values are not " + weights.length + " vectors of dimension " + dimension
+            );
+        }
+        this.values = values;
+        this.dimension = dimension;
         this.weights = weights;
     }
+
+    public Vectors(double[][] vectors, int[] weights) {
+        this(flatten(vectors), (vectors.length > 0) ? vectors[0].length : 0, weights);
+    }
+
+    public int size() {
+        return weights.length;
+    }
+
+    public int offset(int i) {
+        return i * dimension;
+    }
+
+    /***
+     * Copy of the i-th vector.
+     */
+    public double[] get(int i) {
+        double[] vector = new double[dimension];
+        System.arraycopy(values, i * dimension, vector, 0, dimension);
+        return vector;
+    }
+
+    private static double[] flatten(double[][] vectors) {
+        int dimension = (vectors.length > 0) ? vectors[0].length : 0;
+        if ((long) vectors.length * dimension > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    vectors.length + " vectors of dimension " + dimension + " do not fit in an array"
+            );
+        }
+        double[] values = new double[vectors.length * dimension];
+        for (int i = 0; i < vectors.length; i++) {
+            if (vectors[i].length != dimension) {
+                throw new IllegalArgumentException(
+                        "Vector " + i + " has dimension " + vectors[i].length + ". Expected " + dimension
+                );
+            }
+            System.arraycopy(vectors[i], 0, values, i * dimension, dimension);
+        }
+        return values;
+    }
 }
@@ -1,55 +1,41 @@
 package org.su.fmi.thesis.experiments;
 
+import org.su.fmi.thesis.automaton.Acceptor;
 import org.su.fmi.thesis.automaton.Automaton;
+import org.su.fmi.thesis.automaton.CompiledAutomaton;
+import org.su.fmi.thesis.automaton.LazyDeterminization;
+import org.su.fmi.thesis.automaton.MappedAutomaton;
+import org.su.fmi.thesis.automaton.MinimizationAlgorithm;
 import org.su.fmi.thesis.automaton.utils.IntSequence;
+import org.su.fmi.thesis.experiments.classification.Classification;
+import org.su.fmi.thesis.experiments.classification.Classifier;
+import org.su.fmi.thesis.experiments.classification.EncodedWords;
+import org.su.fmi.thesis.experiments.ioutils.AutomatonReader;
+import org.su.fmi.thesis.experiments.ioutils.LineReader;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
-import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.su.fmi.thesis.automaton.Automaton.NO;
 
 public class AutomatonStats {
 
     public static void main(String[] args) throws IOException {
-        if (args.length != 2) {
-            System.out.println("Usage: <input-dir> <output-dir>");
+        if (args.length != 2 && (args.length != 3 || !args[2].equals("--lazy"))) {
+            System.out.println("Usage: <input-dir> <output-dir> [--lazy]");
             System.exit(1);
         }
 
         File inputDir = new File(args[0]);
         File outputDir = new File(args[1]);
+        boolean lazy = args.length == 3;
 
-        Automaton a = new Automaton();
-
-        int lineNumber = 0;
-        try (BufferedReader br = new BufferedReader(new FileReader(new File(inputDir, "automaton.txt")))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                if (lineNumber == 0) { // initial state is on the first line
-                    a.addInitialState(Integer.parseInt(line));
-                } else if (lineNumber == 1) { // final states are on the second line separated with spaces
-                    String[] finalStates = line.split("\\s");
-                    for (String fs : finalStates) {
-                        int q = Integer.parseInt(fs);
-                        a.addState(q);
-                        a.setStateFinality(q, 1);
-                    }
-                } else { // transitions
-                    String[] split = line.split("\\s");
-                    int q1 = Integer.parseInt(split[0]);
-                    int c = Integer.parseInt(split[1]);
-                    int q2 = Integer.parseInt(split[2]);
-                    a.addTransition(q1, c, q2);
-                }
-                ++lineNumber;
-            }
-        }
+        Automaton a = AutomatonReader.read(new File(inputDir, "automaton.txt"));
 
         a.sort();
 
@@ -60,6 +46,17 @@ public class AutomatonStats {
         System.out.println("Number of final states " + a.getNumberOfFinalStates());
         System.out.println();
 
+        int[] alphabet = readAlphabet(new File(inputDir, "alphabet.tsv"));
+        if (lazy) {
+            // classify against the nondeterministic automaton without building the full deterministic one
+            LazyDeterminization lazyDeterminization = new LazyDeterminization(a);
+            accuracy(lazyDeterminization, false, alphabet, inputDir, outputDir, "train");
+            accuracy(lazyDeterminization, false, alphabet, inputDir, outputDir, "dev");
+            accuracy(lazyDeterminization, false, alphabet, inputDir, outputDir, "test");
+            System.out.println("Number of lazy determinization cache flushes " + lazyDeterminization.getNumberOfFlushes());
+            return;
+        }
+
         a = a.determinize();
         System.out.println("Number of transitions after determinization " + a.getNumberOfTransitions());
         System.out.println("Number of states / reachable / co-reachable after determinization" +
@@ -68,7 +65,13 @@ public class AutomatonStats {
         System.out.println("Number of final states after determinization " + a.getNumberOfFinalStates());
         System.out.println();
 
-        a = a.minimize();
+        a = a.trim();
+        System.out.println("Number of states / transitions after trimming " +
+                a.getNumberOfStates() + " / " + a.getNumberOfTransitions()
+        );
+        System.out.println();
+
+        a = a.minimize(MinimizationAlgorithm.HOPCROFT);
         System.out.println("Number of transitions after minimization " + a.getNumberOfTransitions());
         System.out.println("Number of states / reachable / co-reachable after minimization" +
                 a.getNumberOfStates() + " / " + a.numberOfReachableStates() + " / " + a.numberOfCoReachableStates()
@@ -80,82 +83,69 @@ public class AutomatonStats {
             System.out.println("Automaton has cycle");
         }
         System.out.println();
-        a.write(new DataOutputStream(new FileOutputStream(new File(outputDir, "automaton.dat"))));
+        MappedAutomaton.write(a, new File(outputDir, "automaton.dat"));
 
-        Map<Character, Integer> alphabet = readAlphabet(new File(inputDir, "alphabet.tsv"));
-        accuracy(a, alphabet, inputDir, outputDir, "train");
-        accuracy(a, alphabet, inputDir, outputDir, "dev");
-        accuracy(a, alphabet, inputDir, outputDir, "test");
+        CompiledAutomaton compiled = a.compile();
+        accuracy(compiled, true, alphabet, inputDir, outputDir, "train");
+        accuracy(compiled, true, alphabet, inputDir, outputDir, "dev");
+        accuracy(compiled, true, alphabet, inputDir, outputDir, "test");
     }
 
-    private static Map<Character, Integer> readAlphabet(File f) throws IOException {
-        Map<Character, Integer> alphabet = new HashMap<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(f))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] split = line.split("\t", -1);
-                if (split.length != 2) {
-                    System.out.println("Invalid alphabet format");
-                    System.exit(1);
+    /***
+     * Returns the symbol of every character, characters outside of the alphabet are mapped to NO.
+     */
+    private static int[] readAlphabet(File f) throws IOException {
+        int[] alphabet = new int[Character.MAX_VALUE + 1];
+        Arrays.fill(alphabet, NO);
+        try (LineReader reader = new LineReader(f)) {
+            while (reader.next()) {
+                int tab = reader.indexOf((byte) '\t', reader.start());
+                if (tab <= reader.start() || reader.indexOf((byte) '\t', tab + 1) >= 0) {
+                    throw reader.malformed("Expected <character><tab><symbol>");
                 }
-                alphabet.put(split[0].charAt(0), Integer.parseInt(split[1]));
+                alphabet[reader.string(reader.start(), tab).charAt(0)] = reader.parseInt(tab + 1, reader.end());
             }
         }
         return alphabet;
     }
 
     private static void accuracy(
-            Automaton a, Map<Character, Integer> alphabet, File inputDir, File outputDir, String dataSetName
+            Acceptor a, boolean parallel, int[] alphabet, File inputDir, File outputDir, String dataSetName
     ) throws IOException {
-        int tp = 0, tn = 0, fp = 0, fn = 0;
-        try (
-                BufferedReader br = new BufferedReader(new FileReader(new File(inputDir, dataSetName + ".tsv")));
-                BufferedWriter tpw = new BufferedWriter(new FileWriter(new File(outputDir, dataSetName + ".tp.txt")));
-                BufferedWriter tnw = new BufferedWriter(new FileWriter(new File(outputDir, dataSetName + ".tn.txt")));
-                BufferedWriter fpw = new BufferedWriter(new FileWriter(new File(outputDir, dataSetName + ".fp.txt")));
-                BufferedWriter fnw = new BufferedWriter(new FileWriter(new File(outputDir, dataSetName + ".fn.txt")))
-        ) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] split = line.split("\t");
-                if (split.length != 2) {
-                    System.out.println("Invalid format");
-                    System.exit(1);
-                }
-                int label = Integer.parseInt(split[0]);
-                String word = split[1];
-                IntSequence seq = new IntSequence(word.length(), -1);
-                for (int i = 0; i < word.length(); ++i) {
-                    seq.add(alphabet.get(word.charAt(i)));
-                }
-                int prediction = a.accepts(seq);
-
-                if (label == 1) {
-                    if (prediction == 1) {
-                        ++tp;
-                        tpw.write(word);
-                        tpw.newLine();
-                    } else {
-                        ++fn;
-                        fnw.write(word);
-                        fnw.newLine();
-                    }
-                } else {
-                    if (prediction == 1) {
-                        ++fp;
-                        fpw.write(word);
-                        fpw.newLine();
-                    } else {
-                        tn++;
-                        tnw.write(word);
-                        tnw.newLine();
-                    }
+        EncodedWords words = new EncodedWords();
+        List<String> lines = new ArrayList<>();
+        try (LineReader reader = new LineReader(new File(inputDir, dataSetName + ".tsv"))) {
+            while (reader.next()) {
+                int tab = reader.indexOf((byte) '\t', reader.start());
+                if (tab < 0 || reader.indexOf((byte) '\t', tab + 1) >= 0) {
+                    throw reader.malformed("Expected <label><tab><word>");
                 }
+                String word = reader.string(tab + 1, reader.end());
+                words.add(reader.parseInt(reader.start(), tab), word, alphabet);
+                lines.add(word);
             }
         }
 
+        Classification c = parallel
+                ? Classifier.classify(a, words, true)
+                : Classifier.classify(a, words, 0, words.getNumberOfWords(), true);
+
+        write(new File(outputDir, dataSetName + ".tp.txt"), lines, c.truePositives);
+        write(new File(outputDir, dataSetName + ".tn.txt"), lines, c.trueNegatives);
+        write(new File(outputDir, dataSetName + ".fp.txt"), lines, c.falsePositives);
+        write(new File(outputDir, dataSetName + ".fn.txt"), lines, c.falseNegatives);
+
         System.out.println(String.format("%s : TP : %s TN : %s FP : %s FN : %s ACC : %s",
-                dataSetName, tp, tn, fp, fn, ((tp + tn) / (double) (tp + tn + fp + fn))
+                dataSetName, c.tp, c.tn, c.fp, c.fn, c.getAccuracy()
         ));
     }
+
+    private static void write(File f, List<String> lines, IntSequence words) throws IOException {
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(f))) {
+            for (int i = 0; i < words.length; i++) {
+                bw.write(lines.get(words.seq[i]));
+                bw.newLine();
+            }
+        }
+    }
 }
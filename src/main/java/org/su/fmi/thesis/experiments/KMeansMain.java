@@ -1,10 +1,16 @@
 package org.su.fmi.thesis.experiments;
 
+import org.su.fmi.thesis.clustering.Assignment;
+import org.su.fmi.thesis.clustering.Initialization;
 import org.su.fmi.thesis.clustering.KMeans;
+import org.su.fmi.thesis.clustering.MiniBatchKMeans;
+import org.su.fmi.thesis.clustering.StreamingKMeans;
 import org.su.fmi.thesis.clustering.distances.Distance;
 import org.su.fmi.thesis.clustering.distances.EuclideanDistance;
 import org.su.fmi.thesis.clustering.distances.MahalanobisDistance;
 import org.su.fmi.thesis.clustering.distances.StandardizedEuclideanDistance;
+import org.su.fmi.thesis.clustering.metrics.CsvMetricsWriter;
+import org.su.fmi.thesis.clustering.model.VectorStream;
 import org.su.fmi.thesis.clustering.model.Vectors;
 import org.su.fmi.thesis.experiments.ioutils.VectorsReader;
 
@@ -13,18 +19,29 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.util.Arrays;
 
 import static org.su.fmi.thesis.clustering.distances.Utils.covarianceMatrix;
-import static org.su.fmi.thesis.clustering.distances.Utils.inverseMatrix;
-import static org.su.fmi.thesis.clustering.distances.Utils.nonDegenerate;
+import static org.su.fmi.thesis.clustering.distances.Utils.inverseOrNull;
 
 public class KMeansMain {
-
     public static void main(String[] args) throws Exception {
 
-        if (args.length != 5) {
-            System.out.println("Usage: <input-file> N K D <ED|SED|M>");
-            System.exit(1);
+        Initialization initialization = Initialization.FARTHEST_POINT;
+        int init = Arrays.asList(args).indexOf("--init");
+        if (init >= 0) {
+            if (init + 1 == args.length) {
+                usage();
+            }
+            initialization = initialization(args[init + 1]);
+            String[] rest = new String[args.length - 2];
+            System.arraycopy(args, 0, rest, 0, init);
+            System.arraycopy(args, init + 2, rest, init, args.length - init - 2);
+            args = rest;
+        }
+
+        if (args.length < 5 || args.length > 7) {
+            usage();
         }
 
         File file = new File(args[0]);
@@ -40,49 +57,188 @@ public class KMeansMain {
             System.exit(1);
         }
 
-        Vectors vectors = VectorsReader.parseVectors(file, N, D);
+        // <mini-batch-size> alone is the same as batch <mini-batch-size>
+        String mode = (args.length == 7) ? args[5] : (args.length == 6) ? "batch" : "";
+        if (!mode.isEmpty() && !mode.equals("batch") && !mode.equals("stream")) {
+            System.out.println(mode + " is not a valid mode. Select from batch (Mini-batch K Means) or " +
+                    "stream (K Means over the file in chunks, without loading it)");
+            System.exit(1);
+        }
+        int size = 0;
+        if (args.length == 6 && (args[5].equals("batch") || args[5].equals("stream"))) {
+            System.out.println(args[5] + " expects a " + (args[5].equals("batch") ? "mini-batch" : "chunk") + " size");
+            usage();
+        } else if (args.length > 5) {
+            size = positive(args[args.length - 1]);
+        }
 
-        Distance distance;
-        if (dist.equals("ED")) {
-            distance = new EuclideanDistance();
-        } else if (dist.equals("SED")) {
-            distance = new StandardizedEuclideanDistance(vectors.vectors);
+        System.out.println("N = " + N + " D = " + D + " K = " + K);
+
+        if (mode.equals("stream")) {
+            try (VectorStream vectors = VectorsReader.streamVectors(file, N, D, size)) {
+                streamingClustering(vectors, D, K, file, distance(dist, vectors), initialization);
+            }
+            return;
+        }
+
+        Vectors vectors = VectorsReader.parseVectors(file, N, D);
+        Distance distance = distance(dist, vectors);
+
+        int[] clusters;
+        double[][] centroids;
+        if (mode.equals("batch")) {
+            MiniBatchKMeans kMeans = new MiniBatchKMeans(vectors, K, 666L, distance, size);
+            kMeans.setInitialization(initialization);
+            try (CsvMetricsWriter metrics = metricsWriter(file)) {
+                kMeans.setListener(metrics);
+                kMeans.fit();
+            }
+            System.out.println("Finished mini-batch K Means in " + kMeans.getNumberOfIterations() + " batches");
+            System.out.println("Inertia " + kMeans.inertia);
+            clusters = kMeans.clusters;
+            centroids = kMeans.centroids;
         } else {
-            double[][] covMatrix = covarianceMatrix(vectors.vectors);
-            if (!nonDegenerate(covMatrix)) {
-                System.out.println("WARNING: Covariance matrix is degenerate. " +
-                        "Falling back to Standardized Euclidean Distance");
-                distance = new StandardizedEuclideanDistance(vectors.vectors);
-            } else {
-                distance = new MahalanobisDistance(inverseMatrix(covMatrix));
+            KMeans kMeans = new KMeans(vectors, K, 666L, distance, Assignment.HAMERLY, initialization);
+            try (CsvMetricsWriter metrics = metricsWriter(file)) {
+                kMeans.setListener(metrics);
+                kMeans.fit();
             }
+            System.out.println("Finished K Means in " + kMeans.getNumberOfIterations() + " iterations");
+            System.out.println("Inertia " + kMeans.inertia);
+            clusters = kMeans.clusters;
+            centroids = kMeans.centroids;
         }
 
-        clustering(vectors, N, D, K, file, distance);
+        try (BufferedWriter bw = assignmentsWriter(file, K)) {
+            for (int i = 0; i < N; i++) {
+                bw.write(String.valueOf(clusters[i]));
+                bw.newLine();
+            }
+        }
+        writeCentroids(centroids, D, K, file);
     }
 
-    private static void clustering(Vectors vectors, int N, int D, int K, File f, Distance distance)
-            throws IOException {
-        System.out.println("N = " + N + " D = " + D + " K = " + K);
+    private static void usage() {
+        System.out.println(
+                "Usage: <input-file> N K D <ED|SED|M> [[batch] <mini-batch-size> | stream <chunk-size>] " +
+                        "[--init <farthest|kmeans++|kmeans-parallel>]"
+        );
+        System.exit(1);
+    }
 
-        KMeans kMeans = new KMeans(vectors, K, 666L, distance);
-        kMeans.fit();
+    private static Initialization initialization(String name) {
+        switch (name) {
+            case "farthest":
+                return Initialization.FARTHEST_POINT;
+            case "kmeans++":
+                return Initialization.KMEANS_PLUSPLUS;
+            case "kmeans-parallel":
+                return Initialization.KMEANS_PARALLEL;
+            default:
+                System.out.println(name + " is not a valid initialization. Select from farthest (farthest point), " +
+                        "kmeans++ (greedy k-means++) or kmeans-parallel (k-means||)");
+                System.exit(1);
+                return null;
+        }
+    }
 
-        try (BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(
-                new File(f.getParent(), String.format(f.getName() + ".assignments.txt", K))
-        )))) {
-            for (int i = 0; i < N; i++) {
-                bw.write(String.valueOf(kMeans.clusters[i]));
-                bw.newLine();
+    private static int positive(String size) {
+        try {
+            int value = Integer.parseInt(size);
+            if (value > 0) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        System.out.println(size + " is not a valid size, expected a positive integer");
+        usage();
+        return 0;
+    }
+
+    private static Distance distance(String dist, Vectors vectors) {
+        if (dist.equals("ED")) {
+            return new EuclideanDistance();
+        } else if (dist.equals("SED")) {
+            return new StandardizedEuclideanDistance(vectors);
+        }
+        Distance mahalanobis = mahalanobis(covarianceMatrix(vectors));
+        return (mahalanobis != null) ? mahalanobis : new StandardizedEuclideanDistance(vectors);
+    }
+
+    private static Distance distance(String dist, VectorStream vectors) throws IOException {
+        if (dist.equals("ED")) {
+            return new EuclideanDistance();
+        } else if (dist.equals("SED")) {
+            return new StandardizedEuclideanDistance(vectors);
+        }
+        Distance mahalanobis = mahalanobis(covarianceMatrix(vectors));
+        return (mahalanobis != null) ? mahalanobis : new StandardizedEuclideanDistance(vectors);
+    }
+
+    /***
+     * The mahalanobis distance of the covariance matrix, null if the matrix is degenerate.
+     */
+    private static Distance mahalanobis(double[][] covMatrix) {
+        double[][] inverse = inverseOrNull(covMatrix);
+        if (inverse == null) {
+            System.out.println("WARNING: Covariance matrix is degenerate. " +
+                    "Falling back to Standardized Euclidean Distance");
+            return null;
+        }
+        return new MahalanobisDistance(inverse);
+    }
+
+    private static void streamingClustering(VectorStream vectors, int D, int K, File f, Distance distance,
+                                            Initialization initialization) throws IOException {
+        StreamingKMeans kMeans = new StreamingKMeans(vectors, K, 666L, distance);
+        kMeans.setInitialization(initialization);
+        try (CsvMetricsWriter metrics = metricsWriter(f)) {
+            kMeans.setListener(metrics);
+            kMeans.fit();
+        }
+        System.out.println("Finished streaming K Means in " + kMeans.getNumberOfIterations() + " passes");
+        System.out.println("Inertia " + kMeans.inertia);
+
+        try (BufferedWriter bw = assignmentsWriter(f, K)) {
+            IOException[] exception = new IOException[1];
+            kMeans.assign(cluster -> {
+                if (exception[0] != null) {
+                    return;
+                }
+                try {
+                    bw.write(String.valueOf(cluster));
+                    bw.newLine();
+                } catch (IOException e) {
+                    exception[0] = e;
+                }
+            });
+            if (exception[0] != null) {
+                throw exception[0];
             }
         }
+        writeCentroids(kMeans.centroids, D, K, f);
+    }
+
+    private static CsvMetricsWriter metricsWriter(File f) throws IOException {
+        return new CsvMetricsWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(
+                new File(f.getParent(), f.getName() + ".metrics.csv")
+        ))));
+    }
+
+    private static BufferedWriter assignmentsWriter(File f, int K) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(
+                new File(f.getParent(), String.format(f.getName() + ".assignments.txt", K))
+        )));
+    }
 
+    private static void writeCentroids(double[][] centroids, int D, int K, File f) throws IOException {
         try (BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(
                 new File(f.getParent(), String.format(f.getName() + ".centroids.txt", K))
         )))) {
             for (int k = 0; k < K; k++) {
                 for (int d = 0; d < D; d++) {
-                    bw.write(String.valueOf(kMeans.centroids[k][d]));
+                    bw.write(String.valueOf(centroids[k][d]));
                     bw.write(" ");
                 }
                 bw.newLine();
@@ -0,0 +1,39 @@
+package org.su.fmi.thesis.experiments;
+
+import org.su.fmi.thesis.experiments.ioutils.TsvVectorStream;
+import org.su.fmi.thesis.experiments.ioutils.VectorsFile;
+
+import java.io.File;
+
+public class VectorsConverterMain {
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    public static void main(String[] args) throws Exception {
+
+        if (args.length != 3 && args.length != 4) {
+            System.out.println("Usage: <input-file> D <output-file> [float32|float64]");
+            System.exit(1);
+        }
+
+        File input = new File(args[0]);
+        int D = Integer.parseInt(args[1]);
+        File output = new File(args[2]);
+
+        VectorsFile.DataType type = VectorsFile.DataType.FLOAT32;
+        if (args.length == 4) {
+            if (!args[3].equals("float32") && !args[3].equals("float64")) {
+                System.out.println(args[3] + " is not a valid type. Select from float32 or float64");
+                System.exit(1);
+            }
+            type = args[3].equals("float32") ? VectorsFile.DataType.FLOAT32 : VectorsFile.DataType.FLOAT64;
+        }
+
+        long t0 = System.currentTimeMillis();
+        try (TsvVectorStream vectors = new TsvVectorStream(input, D, CHUNK_SIZE)) {
+            long n = VectorsFile.write(vectors, output, type);
+            System.out.println(
+                    "Converted " + n + " vectors in " + (System.currentTimeMillis() - t0) + " milliseconds"
+            );
+        }
+    }
+}
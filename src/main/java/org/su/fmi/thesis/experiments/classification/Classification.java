@@ -0,0 +1,79 @@
+package org.su.fmi.thesis.experiments.classification;
+
+import org.su.fmi.thesis.automaton.utils.IntSequence;
+
+/***
+ * Confusion counters of a binary classification.
+ * If the words are collected, the four sequences hold the indexes of the words in each class in batch order,
+ * otherwise they are null.
+ */
+public class Classification {
+    public long tp;
+    public long tn;
+    public long fp;
+    public long fn;
+    public IntSequence truePositives;
+    public IntSequence trueNegatives;
+    public IntSequence falsePositives;
+    public IntSequence falseNegatives;
+
+    public Classification(boolean collectWords) {
+        if (collectWords) {
+            truePositives = new IntSequence();
+            trueNegatives = new IntSequence();
+            falsePositives = new IntSequence();
+            falseNegatives = new IntSequence();
+        }
+    }
+
+    void add(int word, int label, int prediction) {
+        if (label == 1) {
+            if (prediction == 1) {
+                ++tp;
+                add(truePositives, word);
+            } else {
+                ++fn;
+                add(falseNegatives, word);
+            }
+        } else {
+            if (prediction == 1) {
+                ++fp;
+                add(falsePositives, word);
+            } else {
+                ++tn;
+                add(trueNegatives, word);
+            }
+        }
+    }
+
+    /***
+     * Appends the other classification to this one, the words of the other one come after the words of this one.
+     */
+    Classification merge(Classification other) {
+        tp += other.tp;
+        tn += other.tn;
+        fp += other.fp;
+        fn += other.fn;
+        if (truePositives != null) {
+            truePositives.append(other.truePositives);
+            trueNegatives.append(other.trueNegatives);
+            falsePositives.append(other.falsePositives);
+            falseNegatives.append(other.falseNegatives);
+        }
+        return this;
+    }
+
+    public long getNumberOfWords() {
+        return tp + tn + fp + fn;
+    }
+
+    public double getAccuracy() {
+        return (tp + tn) / (double) getNumberOfWords();
+    }
+
+    private static void add(IntSequence words, int word) {
+        if (words != null) {
+            words.add(word);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.su.fmi.thesis.experiments.classification;
+
+import org.su.fmi.thesis.automaton.Acceptor;
+
+import java.util.stream.IntStream;
+
+/***
+ * Classifies batches of encoded words in parallel.
+ * The batch is split into chunks which are classified on the common fork-join pool against the same
+ * read-only acceptor, the per chunk results are merged in chunk order.
+ * The parallel classify expects an acceptor which can be shared between threads, see Acceptor.
+ */
+public class Classifier {
+    public static final int CHUNK_SIZE = 4096;
+
+    public static Classification classify(Acceptor a, EncodedWords words, boolean collectWords) {
+        int numberOfWords = words.getNumberOfWords();
+        int numberOfChunks = (numberOfWords + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        return IntStream.range(0, numberOfChunks).parallel()
+                .mapToObj(chunk -> classify(
+                        a, words, chunk * CHUNK_SIZE, Math.min(numberOfWords, (chunk + 1) * CHUNK_SIZE), collectWords
+                ))
+                .reduce(Classification::merge)
+                .orElseGet(() -> new Classification(collectWords));
+    }
+
+    public static Classification classify(Acceptor a, EncodedWords words, int from, int to, boolean collectWords) {
+        Classification result = new Classification(collectWords);
+        int[] symbols = words.symbols.seq;
+        for (int word = from; word < to; word++) {
+            int prediction = a.accepts(symbols, words.wordsSymbols.seq[word], words.getWordLength(word));
+            result.add(word, words.getWordLabel(word), prediction);
+        }
+        return result;
+    }
+}
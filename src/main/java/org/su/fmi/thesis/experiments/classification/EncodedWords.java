@@ -0,0 +1,50 @@
+package org.su.fmi.thesis.experiments.classification;
+
+import org.su.fmi.thesis.automaton.utils.IntSequence;
+
+/***
+ * Batch of labelled words encoded as alphabet symbols.
+ * The symbols of all words are stored contiguously, word w occupies
+ * symbols[wordsSymbols[w]..wordsSymbols[w] + getWordLength(w)).
+ */
+public class EncodedWords {
+    public IntSequence symbols = new IntSequence();
+    public IntSequence wordsSymbols = new IntSequence();
+    public IntSequence wordsLabel = new IntSequence();
+
+    public int getNumberOfWords() {
+        return wordsSymbols.length;
+    }
+
+    public int getWordLength(int word) {
+        return ((word + 1 < getNumberOfWords()) ? wordsSymbols.seq[word + 1] : symbols.length) - wordsSymbols.seq[word];
+    }
+
+    public int getWordLabel(int word) {
+        return wordsLabel.seq[word];
+    }
+
+    public void add(int label, int[] word) {
+        wordsSymbols.add(symbols.length);
+        wordsLabel.add(label);
+        symbols.append(word);
+    }
+
+    /***
+     * Encodes every character of the word with alphabet[character].
+     */
+    public void add(int label, CharSequence word, int[] alphabet) {
+        wordsSymbols.add(symbols.length);
+        wordsLabel.add(label);
+        int length = word.length();
+        for (int i = 0; i < length; i++) {
+            symbols.add(alphabet[word.charAt(i)]);
+        }
+    }
+
+    public void clear() {
+        symbols.length = 0;
+        wordsSymbols.length = 0;
+        wordsLabel.length = 0;
+    }
+}
@@ -0,0 +1,88 @@
+package org.su.fmi.thesis.experiments.ioutils;
+
+import org.su.fmi.thesis.automaton.Automaton;
+import org.su.fmi.thesis.automaton.utils.IntSequence;
+
+import java.io.File;
+import java.io.IOException;
+
+public class AutomatonReader {
+    private static final int SAMPLE_SIZE = 1 << 12;
+
+    /***
+     * Reads an automaton in the text format of automaton.txt:
+     * the initial state on the first line, the final states separated with whitespace on the second line
+     * and a transition "from label to" on every following line. Blank transition lines are skipped.
+     * The transitions are written directly in the transition sequences of the automaton, which are pre-sized
+     * from the file length and the average length of the first lines. The result is not sorted.
+     */
+    public static Automaton read(File file) throws IOException {
+        Automaton a = new Automaton();
+        IntSequence from = a.getTransitionsFrom();
+        IntSequence label = a.getTransitionsLabel();
+        IntSequence to = a.getTransitionsTo();
+        int maxState = -1;
+
+        try (LineReader reader = new LineReader(file)) {
+            if (!reader.next()) {
+                throw new MalformedLineException(file, 1, "Missing initial state");
+            }
+            int initialState = state(reader);
+            if (reader.hasNext()) {
+                throw reader.malformed("Expected a single initial state");
+            }
+            a.addInitialState(initialState);
+            maxState = initialState;
+
+            IntSequence finalStates = new IntSequence();
+            if (reader.next()) {
+                while (reader.hasNext()) {
+                    int q = state(reader);
+                    finalStates.add(q);
+                    maxState = Math.max(maxState, q);
+                }
+            }
+
+            long firstTransitionOffset = reader.getOffset();
+            while (reader.next()) {
+                if (reader.isBlank()) {
+                    continue;
+                }
+                int q1 = state(reader);
+                int c = reader.nextInt();
+                int q2 = state(reader);
+                if (reader.hasNext()) {
+                    throw reader.malformed("Expected a transition <from> <label> <to>");
+                }
+                from.add(q1);
+                label.add(c);
+                to.add(q2);
+                maxState = Math.max(maxState, Math.max(q1, q2));
+
+                if (from.length == SAMPLE_SIZE) {
+                    long bytesPerLine = Math.max(1, (reader.getOffset() - firstTransitionOffset) / SAMPLE_SIZE);
+                    int capacity = (int) Math.min(Integer.MAX_VALUE - 8, reader.size() / bytesPerLine + SAMPLE_SIZE);
+                    from.ensureCapacity(capacity);
+                    label.ensureCapacity(capacity);
+                    to.ensureCapacity(capacity);
+                }
+            }
+
+            if (maxState >= 0) {
+                a.addState(maxState);
+            }
+            for (int i = 0; i < finalStates.length; i++) {
+                a.setStateFinality(finalStates.seq[i], 1);
+            }
+        }
+        return a;
+    }
+
+    private static int state(LineReader reader) throws MalformedLineException {
+        int q = reader.nextInt();
+        if (q < 0) {
+            throw reader.malformed("Negative state " + q);
+        }
+        return q;
+    }
+}
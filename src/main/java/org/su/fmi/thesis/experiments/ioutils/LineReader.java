@@ -0,0 +1,297 @@
+package org.su.fmi.thesis.experiments.ioutils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/***
+ * Reads a file line by line directly from its bytes, without decoding the lines to Strings.
+ * The current line is bytes()[start()..end()) without the line terminator (\n or \r\n).
+ * Numbers are parsed from the bytes by nextInt and nextDouble, which skip the spaces and tabs before them.
+ * The buffer grows if a line does not fit in it.
+ */
+public class LineReader implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    // integers up to 10^15 < 2^53 and the powers of ten up to 10^22 < 5^23 are exact doubles
+    private static final int MAX_EXACT_DIGITS = 15;
+    private static final int MAX_EXACT_POWER = 22;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private File file;
+    private FileChannel channel;
+    private byte[] bytes = new byte[BUFFER_SIZE];
+    private int limit;
+    private int next;
+    private int start;
+    private int end;
+    private int position;
+    private long lineNumber;
+    private long offset;
+    private boolean eof;
+
+    public LineReader(File file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    }
+
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+    /***
+     * Number of bytes of the file before the next line.
+     */
+    public long getOffset() {
+        return offset + next;
+    }
+
+    /***
+     * Advances to the next line. Returns false at the end of the file.
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            for (int i = next; i < limit; i++) {
+                if (bytes[i] == '\n') {
+                    setLine(next, i);
+                    next = i + 1;
+                    return true;
+                }
+            }
+            if (eof) {
+                if (next < limit) {
+                    setLine(next, limit);
+                    next = limit;
+                    return true;
+                }
+                return false;
+            }
+            fill();
+        }
+    }
+
+    private void setLine(int from, int to) {
+        if (to > from && bytes[to - 1] == '\r') {
+            to--;
+        }
+        start = position = from;
+        end = to;
+        lineNumber++;
+    }
+
+    private void fill() throws IOException {
+        if (next > 0) {
+            System.arraycopy(bytes, next, bytes, 0, limit - next);
+            offset += next;
+            limit -= next;
+            next = 0;
+        }
+        if (limit == bytes.length) {
+            bytes = Arrays.copyOf(bytes, 2 * bytes.length);
+        }
+        int n = channel.read(ByteBuffer.wrap(bytes, limit, bytes.length - limit));
+        if (n < 0) {
+            eof = true;
+        } else {
+            limit += n;
+        }
+    }
+
+    public byte[] bytes() {
+        return bytes;
+    }
+
+    public int start() {
+        return start;
+    }
+
+    public int end() {
+        return end;
+    }
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    public boolean isBlank() {
+        return skipSpaces() == end;
+    }
+
+    /***
+     * Returns the position of the first occurrence of b in the current line or -1.
+     */
+    public int indexOf(byte b, int from) {
+        for (int i = from; i < end; i++) {
+            if (bytes[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public String string(int from, int to) {
+        return new String(bytes, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    /***
+     * Returns true if there is a token after the current position of the line.
+     */
+    public boolean hasNext() {
+        return skipSpaces() < end;
+    }
+
+    /***
+     * Parses the next whitespace separated token of the line as an int.
+     */
+    public int nextInt() throws MalformedLineException {
+        int i = skipSpaces();
+        int tokenEnd = i;
+        while (tokenEnd < end && bytes[tokenEnd] != ' ' && bytes[tokenEnd] != '\t') {
+            tokenEnd++;
+        }
+        position = tokenEnd;
+        return parseInt(i, tokenEnd);
+    }
+
+    /***
+     * Parses the next whitespace separated token of the line as a double.
+     */
+    public double nextDouble() throws MalformedLineException {
+        int i = skipSpaces();
+        int tokenEnd = i;
+        while (tokenEnd < end && bytes[tokenEnd] != ' ' && bytes[tokenEnd] != '\t') {
+            tokenEnd++;
+        }
+        position = tokenEnd;
+        if (i == tokenEnd) {
+            throw malformed("Expected a number");
+        }
+        double value = parseExactDouble(i, tokenEnd);
+        if (!Double.isNaN(value)) {
+            return value;
+        }
+        try {
+            return Double.parseDouble(string(i, tokenEnd));
+        } catch (NumberFormatException e) {
+            throw malformed("Invalid number " + string(i, tokenEnd));
+        }
+    }
+
+    /***
+     * Parses [+-]digits[.digits][(e|E)[+-]digits] from the bytes when the significand has at most 15 significant
+     * digits and the decimal exponent is at most 22 in absolute value. Both are exact doubles then, so one
+     * multiplication or division gives the correctly rounded value, the same as Double.parseDouble.
+     * Returns NaN for all other tokens, e.g. NaN, Infinity or 17 digit numbers, which are left to Double.parseDouble.
+     */
+    private double parseExactDouble(int from, int to) {
+        int i = from;
+        boolean negative = bytes[i] == '-';
+        if (negative || bytes[i] == '+') {
+            i++;
+        }
+        long significand = 0;
+        int numberOfDigits = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        for (boolean fraction = false; i < to; i++) {
+            int digit = bytes[i] - '0';
+            if (digit >= 0 && digit <= 9) {
+                numberOfDigits++;
+                if (significand != 0 || digit != 0) {
+                    significand = 10 * significand + digit;
+                    significantDigits++;
+                }
+                if (fraction) {
+                    exponent--;
+                }
+            } else if (bytes[i] == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if (numberOfDigits == 0 || significantDigits > MAX_EXACT_DIGITS) {
+            return Double.NaN;
+        }
+        if (i < to && (bytes[i] == 'e' || bytes[i] == 'E')) {
+            i++;
+            boolean negativeExponent = i < to && bytes[i] == '-';
+            if (i < to && (negativeExponent || bytes[i] == '+')) {
+                i++;
+            }
+            int digitsFrom = i;
+            int e = 0;
+            for (; i < to && bytes[i] >= '0' && bytes[i] <= '9'; i++) {
+                e = Math.min(10 * e + bytes[i] - '0', 1 << 16);
+            }
+            if (i == digitsFrom) {
+                return Double.NaN;
+            }
+            exponent += negativeExponent ? -e : e;
+        }
+        if (i != to) {
+            return Double.NaN;
+        }
+        double value = significand;
+        if (significand != 0) {
+            if (exponent < -MAX_EXACT_POWER || exponent > MAX_EXACT_POWER) {
+                return Double.NaN;
+            }
+            value = (exponent < 0) ? value / POWERS_OF_TEN[-exponent] : value * POWERS_OF_TEN[exponent];
+        }
+        return negative ? -value : value;
+    }
+
+    /***
+     * Parses bytes[from..to) of the current line as an int.
+     */
+    public int parseInt(int from, int to) throws MalformedLineException {
+        if (from == to) {
+            throw malformed("Expected a number");
+        }
+        boolean negative = bytes[from] == '-';
+        int i = negative ? from + 1 : from;
+        if (i == to) {
+            throw malformed("Expected a number");
+        }
+        long n = 0;
+        for (; i < to; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw malformed("Invalid number " + string(from, to));
+            }
+            n = 10 * n + digit;
+            if (n > (long) Integer.MAX_VALUE + 1) {
+                throw malformed("Number out of range " + string(from, to));
+            }
+        }
+        n = negative ? -n : n;
+        if (n > Integer.MAX_VALUE) {
+            throw malformed("Number out of range " + string(from, to));
+        }
+        return (int) n;
+    }
+
+    private int skipSpaces() {
+        while (position < end && (bytes[position] == ' ' || bytes[position] == '\t')) {
+            position++;
+        }
+        return position;
+    }
+
+    public MalformedLineException malformed(String message) {
+        return new MalformedLineException(file, lineNumber, message + ": " + string(start, end));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
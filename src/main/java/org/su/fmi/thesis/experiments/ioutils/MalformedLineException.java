@@ -0,0 +1,28 @@
+package org.su.fmi.thesis.experiments.ioutils;
+
+import java.io.File;
+import java.io.IOException;
+
+/***
+ * A line of an input file which does not match the expected format. Line numbers start from 1.
+ */
+public class MalformedLineException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final File file;
+    private final long lineNumber;
+
+    public MalformedLineException(File file, long lineNumber, String message) {
+        super(file + ":" + lineNumber + ": " + message);
+        this.file = file;
+        this.lineNumber = lineNumber;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+}
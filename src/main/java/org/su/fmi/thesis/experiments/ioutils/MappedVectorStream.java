@@ -0,0 +1,62 @@
+package org.su.fmi.thesis.experiments.ioutils;
+
+import org.su.fmi.thesis.clustering.model.VectorStream;
+import org.su.fmi.thesis.clustering.model.Vectors;
+
+import java.io.IOException;
+
+/***
+ * Streams a vectors file in chunks of chunkSize vectors. The file is mapped once when the stream is opened
+ * and every chunk is copied from the mapping, so the heap memory is bounded by the chunk size
+ * and the pages are left to the operating system.
+ * The full chunks share the same arrays and so do the shorter last chunks of the passes.
+ */
+class MappedVectorStream implements VectorStream {
+    private VectorsFile file;
+    private VectorsMapping mapping;
+    private int chunkSize;
+    private long next;
+    private Vectors chunk;
+    private Vectors last;
+
+    MappedVectorStream(VectorsFile file, int chunkSize) throws IOException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive, got " + chunkSize);
+        }
+        this.file = file;
+        this.chunkSize = chunkSize;
+        this.mapping = file.map();
+        this.chunk = new Vectors(new double[chunkSize * file.dimension], file.dimension, new int[chunkSize]);
+    }
+
+    @Override
+    public int dimension() {
+        return file.dimension;
+    }
+
+    @Override
+    public void rewind() {
+        next = 0;
+    }
+
+    @Override
+    public Vectors next() throws IOException {
+        if (next == file.numberOfVectors) {
+            return null;
+        }
+        int n = (int) Math.min(chunkSize, file.numberOfVectors - next);
+        if (n < chunkSize && last == null) {
+            last = new Vectors(new double[n * file.dimension], file.dimension, new int[n]);
+        }
+        Vectors vectors = (n == chunkSize) ? chunk : last;
+        mapping.read(next, n, vectors);
+        next += n;
+        return vectors;
+    }
+
+    @Override
+    public void close() {
+        // the pages are released when the mapping is garbage collected
+        mapping = null;
+    }
+}
@@ -0,0 +1,90 @@
+package org.su.fmi.thesis.experiments.ioutils;
+
+import org.su.fmi.thesis.clustering.model.Vectors;
+import org.su.fmi.thesis.clustering.model.VectorStream;
+
+import java.io.File;
+import java.io.IOException;
+
+/***
+ * Streams the vectors of a text file with lines weight\tv1 v2 ... vD in chunks of chunkSize vectors.
+ * Every pass reads the file again, so only one chunk is in the memory.
+ * All chunks except the last one of a pass share the same arrays.
+ */
+public class TsvVectorStream implements VectorStream {
+    private File file;
+    private int dimension;
+    private int chunkSize;
+    private LineReader reader;
+    private Vectors chunk;
+
+    public TsvVectorStream(File file, int dimension, int chunkSize) throws IOException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive, got " + chunkSize);
+        }
+        this.file = file;
+        this.dimension = dimension;
+        this.chunkSize = chunkSize;
+        this.chunk = new Vectors(new double[chunkSize * dimension], dimension, new int[chunkSize]);
+        rewind();
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    @Override
+    public void rewind() throws IOException {
+        if (reader != null) {
+            reader.close();
+        }
+        reader = new LineReader(file);
+    }
+
+    @Override
+    public Vectors next() throws IOException {
+        int n = read(reader, chunk, chunkSize);
+        if (n == chunkSize) {
+            return chunk;
+        }
+        if (n == 0) {
+            return null;
+        }
+        double[] values = new double[n * dimension];
+        int[] weights = new int[n];
+        System.arraycopy(chunk.values, 0, values, 0, values.length);
+        System.arraycopy(chunk.weights, 0, weights, 0, n);
+        return new Vectors(values, dimension, weights);
+    }
+
+    /***
+     * Parses the next at most n vectors to the first vectors of chunk. Returns the number of parsed vectors.
+     */
+    static int read(LineReader reader, Vectors chunk, int n) throws IOException {
+        int dimension = chunk.dimension;
+        int i = 0;
+        while (i < n && reader.next()) {
+            if (reader.isBlank()) {
+                continue;
+            }
+            chunk.weights[i] = reader.nextInt();
+            for (int d = 0; d < dimension; d++) {
+                if (!reader.hasNext()) {
+                    throw reader.malformed("Expected " + dimension + " components");
+                }
+                chunk.values[i * dimension + d] = reader.nextDouble();
+            }
+            if (reader.hasNext()) {
+                throw reader.malformed("Expected " + dimension + " components");
+            }
+            i++;
+        }
+        return i;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,203 @@
+package org.su.fmi.thesis.experiments.ioutils;
+
+import org.su.fmi.thesis.clustering.model.VectorStream;
+import org.su.fmi.thesis.clustering.model.Vectors;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/***
+ * Binary vectors file, little endian:
+ * header  "VECS", version (int), N (long), D (int), bytes per component (int, 4 for float32 or 8 for float64)
+ * weights N ints
+ * data    N * D floats or doubles, row major
+ * The file is read through FileChannel.map, the components are copied in bulk from the mapped pages
+ * to the heap arrays of Vectors without any parsing.
+ */
+public class VectorsFile {
+    static final int MAGIC = 0x53434556; // "VECS" in little endian
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 24;
+    // the files are mapped in windows of at most this many bytes
+    static final long WINDOW_SIZE = 1 << 30;
+
+    public enum DataType {
+        FLOAT32(4), FLOAT64(8);
+
+        final int size;
+
+        DataType(int size) {
+            this.size = size;
+        }
+
+        static DataType of(int size) {
+            for (DataType type : values()) {
+                if (type.size == size) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+
+    final File file;
+    final long numberOfVectors;
+    final int dimension;
+    final DataType type;
+
+    private VectorsFile(File file, long numberOfVectors, int dimension, DataType type) {
+        this.file = file;
+        this.numberOfVectors = numberOfVectors;
+        this.dimension = dimension;
+        this.type = type;
+    }
+
+    public long getNumberOfVectors() {
+        return numberOfVectors;
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    public DataType getType() {
+        return type;
+    }
+
+    long weightsOffset() {
+        return HEADER_SIZE;
+    }
+
+    long dataOffset() {
+        return HEADER_SIZE + 4 * numberOfVectors;
+    }
+
+    /***
+     * Returns true if the file starts with the magic number of a vectors file.
+     */
+    public static boolean isVectorsFile(File file) throws IOException {
+        if (file.length() < HEADER_SIZE) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            return header.getInt(0) == MAGIC;
+        }
+    }
+
+    public static VectorsFile open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+            }
+            if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+                throw new IOException(file + " is not a vectors file");
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException(file + " has unsupported version " + header.getInt(4));
+            }
+            long numberOfVectors = header.getLong(8);
+            int dimension = header.getInt(16);
+            DataType type = DataType.of(header.getInt(20));
+            if (numberOfVectors < 0 || dimension <= 0 || type == null) {
+                throw new IOException(file + " has an invalid header");
+            }
+            VectorsFile vectorsFile = new VectorsFile(file, numberOfVectors, dimension, type);
+            long expected = vectorsFile.dataOffset() + numberOfVectors * dimension * type.size;
+            if (channel.size() != expected) {
+                throw new IOException(file + " has " + channel.size() + " bytes, expected " + expected);
+            }
+            return vectorsFile;
+        }
+    }
+
+    /***
+     * Reads all vectors in the memory, the values are copied to the heap.
+     */
+    public Vectors read() throws IOException {
+        if (numberOfVectors * dimension > Integer.MAX_VALUE) {
+            throw new IOException(
+                    numberOfVectors + " vectors of dimension " + dimension + " do not fit in an array, use stream"
+            );
+        }
+        int n = (int) numberOfVectors;
+        Vectors vectors = new Vectors(new double[n * dimension], dimension, new int[n]);
+        map().read(0, n, vectors);
+        return vectors;
+    }
+
+    VectorsMapping map() throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return new VectorsMapping(this, channel, WINDOW_SIZE);
+        }
+    }
+
+    /***
+     * Streams the vectors from the mapped file in chunks of chunkSize vectors.
+     */
+    public VectorStream stream(int chunkSize) throws IOException {
+        return new MappedVectorStream(this, chunkSize);
+    }
+
+    /***
+     * Writes the vectors of the stream to a vectors file, for example to convert a text file with TsvVectorStream.
+     * Returns the number of vectors.
+     */
+    public static long write(VectorStream vectors, File file, DataType type) throws IOException {
+        int dimension = vectors.dimension();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE, StandardOpenOption.READ)) {
+            // the data goes to a temporary file first, since the weights block precedes it and N is not known
+            File dataFile = File.createTempFile(file.getName(), ".data", file.getAbsoluteFile().getParentFile());
+            long numberOfVectors = 0;
+            try (FileChannel data = FileChannel.open(dataFile.toPath(), StandardOpenOption.WRITE,
+                    StandardOpenOption.READ, StandardOpenOption.DELETE_ON_CLOSE)) {
+                channel.position(HEADER_SIZE);
+                vectors.rewind();
+                Vectors chunk;
+                while ((chunk = vectors.next()) != null) {
+                    ByteBuffer weights = ByteBuffer.allocate(4 * chunk.size()).order(ByteOrder.LITTLE_ENDIAN);
+                    weights.asIntBuffer().put(chunk.weights, 0, chunk.size());
+                    writeFully(channel, weights);
+
+                    ByteBuffer values = ByteBuffer.allocate(chunk.values.length * type.size)
+                            .order(ByteOrder.LITTLE_ENDIAN);
+                    if (type == DataType.FLOAT64) {
+                        values.asDoubleBuffer().put(chunk.values);
+                    } else {
+                        FloatBuffer floats = values.asFloatBuffer();
+                        for (double value : chunk.values) {
+                            floats.put((float) value);
+                        }
+                    }
+                    writeFully(data, values);
+                    numberOfVectors += chunk.size();
+                }
+
+                long size = data.size();
+                for (long position = 0; position < size; ) {
+                    position += data.transferTo(position, size - position, channel);
+                }
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putLong(numberOfVectors).putInt(dimension).putInt(type.size);
+            header.flip();
+            channel.position(0);
+            writeFully(channel, header);
+            return numberOfVectors;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
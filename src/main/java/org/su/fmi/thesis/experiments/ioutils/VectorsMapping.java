@@ -0,0 +1,78 @@
+package org.su.fmi.thesis.experiments.ioutils;
+
+import org.su.fmi.thesis.clustering.model.Vectors;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+/***
+ * The weights and the data of a vectors file, mapped once in windows of whole vectors.
+ * Window w holds the weights and the components of the vectors w * vectorsPerWindow, ..., (w + 1) * vectorsPerWindow - 1,
+ * so reading a range of vectors only copies from the existing views and never maps again.
+ * The mapping stays valid after the channel is closed. Not thread-safe, the views keep a position.
+ */
+class VectorsMapping {
+    private final int dimension;
+    private final int vectorsPerWindow;
+    private final IntBuffer[] weights;
+    private final DoubleBuffer[] doubles;
+    private final FloatBuffer[] floats;
+
+    VectorsMapping(VectorsFile file, FileChannel channel, long windowSize) throws IOException {
+        dimension = file.dimension;
+        long vectorSize = (long) dimension * file.type.size;
+        vectorsPerWindow = (int) Math.min(Integer.MAX_VALUE / dimension, Math.max(1, windowSize / vectorSize));
+        int numberOfWindows = (int) ((file.numberOfVectors + vectorsPerWindow - 1) / vectorsPerWindow);
+
+        weights = new IntBuffer[numberOfWindows];
+        doubles = new DoubleBuffer[numberOfWindows];
+        floats = new FloatBuffer[numberOfWindows];
+        for (int w = 0; w < numberOfWindows; w++) {
+            long first = (long) w * vectorsPerWindow;
+            long count = Math.min(vectorsPerWindow, file.numberOfVectors - first);
+            weights[w] = map(channel, file.weightsOffset() + 4 * first, 4 * count).asIntBuffer();
+            ByteBuffer data = map(channel, file.dataOffset() + first * vectorSize, count * vectorSize);
+            if (file.type == VectorsFile.DataType.FLOAT64) {
+                doubles[w] = data.asDoubleBuffer();
+            } else {
+                floats[w] = data.asFloatBuffer();
+            }
+        }
+    }
+
+    /***
+     * Copies the vectors first, first + 1, ..., first + n - 1 to vectors, which has place for at least n vectors.
+     */
+    void read(long first, int n, Vectors vectors) {
+        for (int done = 0; done < n; ) {
+            int w = (int) ((first + done) / vectorsPerWindow);
+            int start = (int) (first + done - (long) w * vectorsPerWindow);
+            int count = Math.min(vectorsPerWindow - start, n - done);
+
+            weights[w].position(start);
+            weights[w].get(vectors.weights, done, count);
+            int offset = done * dimension;
+            int length = count * dimension;
+            if (doubles[w] != null) {
+                doubles[w].position(start * dimension);
+                doubles[w].get(vectors.values, offset, length);
+            } else {
+                FloatBuffer window = floats[w];
+                int from = start * dimension;
+                for (int j = 0; j < length; j++) {
+                    vectors.values[offset + j] = window.get(from + j);
+                }
+            }
+            done += count;
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
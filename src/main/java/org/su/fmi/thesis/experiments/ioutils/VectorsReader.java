@@ -1,46 +1,52 @@
 package org.su.fmi.thesis.experiments.ioutils;
 
+import org.su.fmi.thesis.clustering.model.VectorStream;
 import org.su.fmi.thesis.clustering.model.Vectors;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 
 public class VectorsReader {
 
+    /***
+     * Reads N vectors of dimension D, from a vectors file or from a text file with lines weight\tv1 v2 ... vD.
+     */
     public static Vectors parseVectors(File file, int N, int D) throws IOException {
-        int n = 0;
-        double[][] vectors = new double[N][D];
-        int[] weights = new int[N];
-
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] split = line.split("\\t");
-                if (split.length != 2) {
-                    System.out.println("Invalid input");
-                    System.exit(1);
-                }
-                weights[n] = Integer.parseInt(split[0]);
-
-                split = split[1].split("\\s");
-
-                if (split.length != D) {
-                    System.out.println(
-                            "WARNING. Line " + n + " vector dimension is " + split.length + ". Expected " + D
-                    );
-                    System.exit(2);
-                }
+        if (VectorsFile.isVectorsFile(file)) {
+            return open(file, N, D).read();
+        }
 
-                for (int p = 0; p < split.length; p++) {
-                    vectors[n][p] = Double.parseDouble(split[p]);
+        Vectors vectors = new Vectors(new double[N * D], D, new int[N]);
+        try (LineReader reader = new LineReader(file)) {
+            int n = TsvVectorStream.read(reader, vectors, N);
+            if (n != N) {
+                throw new IOException(file + " has " + n + " vectors. Expected " + N);
+            }
+            while (reader.next()) {
+                if (!reader.isBlank()) {
+                    throw reader.malformed("Expected " + N + " vectors");
                 }
-
-                n++;
             }
         }
+        return vectors;
+    }
+
+    /***
+     * Streams the vectors in chunks of chunkSize vectors, from a vectors file or from a text file.
+     */
+    public static VectorStream streamVectors(File file, int N, int D, int chunkSize) throws IOException {
+        if (VectorsFile.isVectorsFile(file)) {
+            return open(file, N, D).stream(chunkSize);
+        }
+        return new TsvVectorStream(file, D, chunkSize);
+    }
 
-        return new Vectors(vectors, weights);
+    private static VectorsFile open(File file, int N, int D) throws IOException {
+        VectorsFile vectorsFile = VectorsFile.open(file);
+        if (vectorsFile.getNumberOfVectors() != N || vectorsFile.getDimension() != D) {
+            throw new IOException(file + " has " + vectorsFile.getNumberOfVectors() + " vectors of dimension "
+                    + vectorsFile.getDimension() + ". Expected " + N + " of dimension " + D);
+        }
+        return vectorsFile;
     }
 }
@@ -1,13 +1,20 @@
 package org.su.fmi.thesis.automaton;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.su.fmi.thesis.automaton.utils.IntSequence;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Objects;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class AutomatonTest {
 
@@ -154,4 +161,415 @@ class AutomatonTest {
         assertEquals(232603, a.getNumberOfTransitions());
         assertEquals(17643, a.getNumberOfFinalStates());
     }
+
+    @Test
+    void testHopcroftMinimization() throws IOException {
+        for (String resource : new String[]{"numeral8.dat", "numeral.dat"}) {
+            Automaton a = readTrie(resource).determinize();
+            Automaton expected = a.minimize(MinimizationAlgorithm.CLASS_SPLITTING);
+            Automaton actual = a.minimize(MinimizationAlgorithm.HOPCROFT);
+
+            assertTrue(Automaton.isomorphic(expected, actual));
+            assertEquals(expected.getNumberOfFinalStates(), actual.getNumberOfFinalStates());
+        }
+    }
+
+    @Test
+    void testHopcroftMinimizationRandom() {
+        Random random = new Random(666L);
+        for (int i = 0; i < 200; i++) {
+            Automaton a = randomDeterministicAutomaton(random, 1 + random.nextInt(60), 1 + random.nextInt(4));
+            Automaton expected = a.minimize(MinimizationAlgorithm.CLASS_SPLITTING);
+            Automaton actual = a.minimize(MinimizationAlgorithm.HOPCROFT);
+
+            assertTrue(Automaton.isomorphic(expected, actual));
+            assertEquals(expected.getNumberOfFinalStates(), actual.getNumberOfFinalStates());
+        }
+    }
+
+    @Test
+    void testBrzozowskiMinimization() {
+        Random random = new Random(666L);
+        for (int i = 0; i < 200; i++) {
+            // the random automaton is not trimmed, so the result has no more states than the partition refinement
+            Automaton a = randomDeterministicAutomaton(random, 1 + random.nextInt(20), 1 + random.nextInt(4));
+            Automaton actual = a.minimize(MinimizationAlgorithm.BRZOZOWSKI);
+            assertTrue(Automaton.isomorphic(actual, actual.minimize(MinimizationAlgorithm.HOPCROFT)));
+            assertTrue(actual.getNumberOfStates() <= a.minimize(MinimizationAlgorithm.HOPCROFT).getNumberOfStates());
+            for (int j = 0; j < 100; j++) {
+                int[] word = new int[random.nextInt(10)];
+                for (int k = 0; k < word.length; k++) {
+                    word[k] = 'a' + random.nextInt(4);
+                }
+                assertEquals(a.accepts(word, 0, word.length), actual.accepts(word, 0, word.length));
+            }
+
+            Automaton nfa = randomNondeterministicAutomaton(random, 1 + random.nextInt(20), 1 + random.nextInt(3));
+            Automaton expected = nfa.reverse().determinize().reverse().determinize();
+            assertTrue(Automaton.isomorphic(expected, nfa.minimize(MinimizationAlgorithm.BRZOZOWSKI)));
+        }
+    }
+
+    @Test
+    void testReachability() {
+        Random random = new Random(666L);
+        for (int i = 0; i < 100; i++) {
+            Automaton a = randomNondeterministicAutomaton(random, 1 + random.nextInt(100), 1 + random.nextInt(2));
+            int n = a.getNumberOfStates();
+            boolean[][] path = new boolean[n][n];
+            for (int q = 0; q < n; q++) {
+                path[q][q] = true;
+            }
+            for (int tr = 0; tr < a.getNumberOfTransitions(); tr++) {
+                path[a.getTransitionsFrom().seq[tr]][a.getTransitionsTo().seq[tr]] = true;
+            }
+            for (int k = 0; k < n; k++) {
+                for (int p = 0; p < n; p++) {
+                    for (int q = 0; q < n; q++) {
+                        path[p][q] |= path[p][k] && path[k][q];
+                    }
+                }
+            }
+
+            long[] reachable = a.reachableStates();
+            long[] coReachable = a.coReachableStates();
+            for (int q = 0; q < n; q++) {
+                boolean expectedReachable = false;
+                boolean expectedCoReachable = false;
+                for (int p = 0; p < n; p++) {
+                    expectedReachable |= path[p][q] && contains(a.getInitialStates(), p);
+                    expectedCoReachable |= path[q][p] && a.getStateFinality(p) != 0;
+                }
+                assertEquals(expectedReachable, (reachable[q >>> 6] & (1L << q)) != 0);
+                assertEquals(expectedCoReachable, (coReachable[q >>> 6] & (1L << q)) != 0);
+            }
+        }
+    }
+
+    @Test
+    void testTrim() {
+        Random random = new Random(666L);
+        for (int i = 0; i < 100; i++) {
+            Automaton a = randomNondeterministicAutomaton(random, 1 + random.nextInt(40), 1 + random.nextInt(2));
+            Automaton trimmed = a.trim();
+
+            assertEquals(trimmed.getNumberOfStates(), trimmed.numberOfReachableStates());
+            if (trimmed.getNumberOfFinalStates() > 0) {
+                assertEquals(trimmed.getNumberOfStates(), trimmed.numberOfCoReachableStates());
+            } else {
+                assertEquals(1, trimmed.getNumberOfStates());
+                assertEquals(0, trimmed.getNumberOfTransitions());
+            }
+            for (int tr = 1; tr < trimmed.getNumberOfTransitions(); tr++) {
+                int from = Integer.compare(trimmed.getTransitionsFrom().seq[tr - 1], trimmed.getTransitionsFrom().seq[tr]);
+                int label = Integer.compare(trimmed.getTransitionsLabel().seq[tr - 1], trimmed.getTransitionsLabel().seq[tr]);
+                int to = Integer.compare(trimmed.getTransitionsTo().seq[tr - 1], trimmed.getTransitionsTo().seq[tr]);
+                assertTrue(from < 0 || (from == 0 && (label < 0 || (label == 0 && to <= 0))));
+            }
+            for (int j = 0; j < 100; j++) {
+                int[] word = new int[random.nextInt(6)];
+                for (int k = 0; k < word.length; k++) {
+                    word[k] = 'a' + random.nextInt(2);
+                }
+                assertEquals(nfaAccepts(a, word), nfaAccepts(trimmed, word));
+            }
+            // breadth first numbering: every state except the initial ones is first entered from a smaller state
+            boolean[] entered = new boolean[trimmed.getNumberOfStates()];
+            for (int tr = 0; tr < trimmed.getNumberOfTransitions(); tr++) {
+                int to = trimmed.getTransitionsTo().seq[tr];
+                if (!entered[to] && !contains(trimmed.getInitialStates(), to)) {
+                    entered[to] = true;
+                    assertTrue(trimmed.getTransitionsFrom().seq[tr] < to);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testTrimBeforeMinimization() {
+        Random random = new Random(666L);
+        for (int i = 0; i < 100; i++) {
+            Automaton a = randomDeterministicAutomaton(random, 1 + random.nextInt(30), 1 + random.nextInt(4));
+            Automaton trimmed = a.trim();
+            Automaton expected = a.minimize(MinimizationAlgorithm.BRZOZOWSKI);
+            if (trimmed.getNumberOfFinalStates() > 0) {
+                assertTrue(Automaton.isomorphic(expected, trimmed.minimize(MinimizationAlgorithm.CLASS_SPLITTING)));
+                assertTrue(Automaton.isomorphic(expected, trimmed.minimize(MinimizationAlgorithm.HOPCROFT)));
+            }
+        }
+    }
+
+    @Test
+    void testTrimEmptyLanguage() {
+        Automaton a = new Automaton();
+        a.addState(2);
+        a.addInitialState(0);
+        a.addTransition(0, 'a', 1);
+        a.addTransition(1, 'b', 0);
+        a.addTransition(2, 'a', 2);
+        a.setStateFinality(2, 1);
+        a.sort();
+
+        Automaton trimmed = a.trim();
+        assertEquals(1, trimmed.getNumberOfStates());
+        assertEquals(0, trimmed.getNumberOfTransitions());
+        assertEquals(1, trimmed.getInitialStates().length);
+        assertEquals(0, trimmed.getNumberOfFinalStates());
+
+        Automaton minimal = trimmed.minimize(MinimizationAlgorithm.HOPCROFT);
+        assertEquals(1, minimal.getNumberOfStates());
+        CompiledAutomaton compiled = minimal.compile();
+        assertEquals(0, compiled.accepts(new IntSequence()));
+        assertEquals(0, compiled.accepts(new int[]{'a'}, 0, 1));
+    }
+
+    private static boolean contains(IntSequence seq, int value) {
+        for (int i = 0; i < seq.length; i++) {
+            if (seq.seq[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    void testSort() {
+        Random random = new Random(666L);
+        for (int n : new int[]{0, 1, 2, 100, 10000}) {
+            Automaton a = new Automaton();
+            long[] expected = new long[n];
+            for (int i = 0; i < n; i++) {
+                int from = random.nextInt(1000);
+                int label = random.nextInt(600) - 300;
+                int to = random.nextInt(100000);
+                a.addTransition(from, label, to);
+                expected[i] = (((long) from) << 42) | (((long) (label + 300)) << 21) | to;
+            }
+            a.sort();
+            Arrays.sort(expected);
+
+            assertEquals(n, a.getNumberOfTransitions());
+            for (int i = 0; i < n; i++) {
+                assertEquals(expected[i] >>> 42, a.getTransitionsFrom().seq[i]);
+                assertEquals(((expected[i] >>> 21) & 0x1FFFFF) - 300, a.getTransitionsLabel().seq[i]);
+                assertEquals(expected[i] & 0x1FFFFF, a.getTransitionsTo().seq[i]);
+            }
+            for (int i = 1; i < n; i++) {
+                int from = a.getTransitionsFrom().seq[i];
+                if (from != a.getTransitionsFrom().seq[i - 1]) {
+                    assertEquals(i, a.getStatesTransitions().seq[from]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testCompile() {
+        Random random = new Random(666L);
+        for (int i = 0; i < 50; i++) {
+            Automaton a = randomDeterministicAutomaton(random, 1 + random.nextInt(60), 1 + random.nextInt(4));
+            if (i % 2 == 0) {
+                a = a.minimize(MinimizationAlgorithm.HOPCROFT);
+            }
+            CompiledAutomaton compiled = a.compile();
+
+            for (int j = 0; j < 100; j++) {
+                IntSequence word = new IntSequence();
+                int length = random.nextInt(10);
+                for (int k = 0; k < length; k++) {
+                    word.add('a' + random.nextInt(5) - (j % 3 == 0 ? 1 : 0));
+                }
+                assertEquals(a.accepts(word), compiled.accepts(word));
+            }
+            for (int q = 0; q < a.getNumberOfStates(); q++) {
+                for (int label = 'a' - 1; label <= 'a' + 5; label++) {
+                    assertEquals(a.delta(q, label), compiled.delta(q, label));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testMappedAutomaton(@TempDir Path dir) throws IOException {
+        Random random = new Random(666L);
+        for (int i = 0; i < 20; i++) {
+            Automaton a = randomDeterministicAutomaton(random, 1 + random.nextInt(60), 1 + random.nextInt(4));
+            File f = dir.resolve("automaton" + i + ".dat").toFile();
+            MappedAutomaton.write(a, f);
+            MappedAutomaton mapped = new MappedAutomaton(f);
+
+            assertEquals(a.getNumberOfStates(), mapped.getNumberOfStates());
+            assertEquals(a.getNumberOfTransitions(), mapped.getNumberOfTransitions());
+            for (int q = 0; q < a.getNumberOfStates(); q++) {
+                assertEquals(a.getStateFinality(q), mapped.getStateFinality(q));
+                for (int label = 'a' - 1; label <= 'a' + 5; label++) {
+                    assertEquals(a.delta(q, label), mapped.delta(q, label));
+                }
+            }
+            for (int j = 0; j < 100; j++) {
+                int[] word = new int[random.nextInt(10)];
+                for (int k = 0; k < word.length; k++) {
+                    word[k] = 'a' + random.nextInt(4);
+                }
+                assertEquals(a.accepts(word, 0, word.length), mapped.accepts(word, 0, word.length));
+            }
+            assertTrue(Automaton.isomorphic(a, mapped.toAutomaton()));
+        }
+    }
+
+    @Test
+    void testDeterminize() {
+        Random random = new Random(666L);
+        for (int i = 0; i < 100; i++) {
+            Automaton nfa = randomNondeterministicAutomaton(random, 1 + random.nextInt(30), 1 + random.nextInt(3));
+            Automaton dfa = nfa.determinize();
+
+            for (int j = 0; j < 100; j++) {
+                int[] word = new int[random.nextInt(8)];
+                for (int k = 0; k < word.length; k++) {
+                    word[k] = 'a' + random.nextInt(3);
+                }
+                assertEquals(nfaAccepts(nfa, word), dfa.accepts(word, 0, word.length));
+            }
+        }
+    }
+
+    @Test
+    void testParallelDeterminize() throws IOException {
+        Random random = new Random(666L);
+        for (int i = 0; i < 50; i++) {
+            Automaton nfa = randomNondeterministicAutomaton(random, 1 + random.nextInt(100), 1 + random.nextInt(3));
+            Automaton expected = nfa.determinize();
+            for (int numberOfThreads : new int[]{1, 2, 4}) {
+                assertAutomatonEquals(expected, nfa.determinize(numberOfThreads));
+            }
+        }
+        Automaton trie = readTrie("numeral.dat");
+        assertAutomatonEquals(trie.determinize(), trie.determinize(4));
+    }
+
+    @Test
+    void testLazyDeterminization() {
+        Random random = new Random(666L);
+        long numberOfFlushes = 0;
+        for (int i = 0; i < 50; i++) {
+            Automaton nfa = randomNondeterministicAutomaton(random, 1 + random.nextInt(30), 1 + random.nextInt(3));
+            Automaton dfa = nfa.determinize();
+            LazyDeterminization unbounded = new LazyDeterminization(nfa);
+            LazyDeterminization bounded = new LazyDeterminization(nfa, 2, 8);
+
+            for (int j = 0; j < 200; j++) {
+                int[] word = new int[random.nextInt(8)];
+                for (int k = 0; k < word.length; k++) {
+                    word[k] = 'a' + random.nextInt(4) - 1;
+                }
+                int expected = dfa.accepts(word, 0, word.length);
+                assertEquals(expected, unbounded.accepts(word, 0, word.length));
+                assertEquals(expected, bounded.accepts(word, 0, word.length));
+            }
+            assertTrue(unbounded.getNumberOfCachedSets() <= dfa.getNumberOfStates());
+            assertTrue(bounded.getNumberOfCachedSets() <= 2);
+            numberOfFlushes += bounded.getNumberOfFlushes();
+        }
+        assertTrue(numberOfFlushes > 0);
+    }
+
+    private Automaton readTrie(String resource) throws IOException {
+        Automaton a = new Automaton();
+
+        int initial_state = 0;
+        a.addInitialState(initial_state);
+        int states_count = 1;
+
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                Objects.requireNonNull(this.getClass().getClassLoader().getResourceAsStream(resource))
+        ))) {
+            String line;
+
+            while ((line = br.readLine()) != null) {
+                line = line.toLowerCase();
+                int prev_state = initial_state;
+                for (int i = 0; i < line.length(); i++) {
+                    a.addTransition(prev_state, line.charAt(i), states_count);
+                    if (i == line.length() - 1) {
+                        a.setStateFinality(states_count, 1);
+                    }
+                    prev_state = states_count;
+                    states_count++;
+                }
+            }
+        }
+
+        a.sort();
+        return a;
+    }
+
+    static Automaton randomDeterministicAutomaton(Random random, int numberOfStates, int numberOfLabels) {
+        Automaton a = new Automaton();
+        a.addInitialState(0);
+        a.addState(numberOfStates - 1);
+        for (int q = 0; q < numberOfStates; q++) {
+            a.setStateFinality(q, random.nextInt(3) == 0 ? 1 : 0);
+            for (int label = 0; label < numberOfLabels; label++) {
+                if (random.nextInt(4) != 0) {
+                    a.addTransition(q, 'a' + label, random.nextInt(numberOfStates));
+                }
+            }
+        }
+        a.sort();
+        return a;
+    }
+
+    static Automaton randomNondeterministicAutomaton(Random random, int numberOfStates, int numberOfLabels) {
+        Automaton a = new Automaton();
+        a.addState(numberOfStates - 1);
+        for (int q = 0; q < numberOfStates; q++) {
+            if (q == 0 || random.nextInt(8) == 0) {
+                a.addInitialState(q);
+            }
+            a.setStateFinality(q, random.nextInt(3) == 0 ? 1 : 0);
+        }
+        for (int i = 2 * numberOfStates * numberOfLabels; i > 0; i--) {
+            a.addTransition(random.nextInt(numberOfStates), 'a' + random.nextInt(numberOfLabels), random.nextInt(numberOfStates));
+        }
+        a.sort();
+        return a;
+    }
+
+    static int nfaAccepts(Automaton a, int[] word) {
+        boolean[] current = new boolean[a.getNumberOfStates()];
+        for (int i = 0; i < a.getInitialStates().length; i++) {
+            current[a.getInitialStates().seq[i]] = true;
+        }
+        for (int label : word) {
+            boolean[] next = new boolean[a.getNumberOfStates()];
+            for (int tr = 0; tr < a.getNumberOfTransitions(); tr++) {
+                if (current[a.getTransitionsFrom().seq[tr]] && a.getTransitionsLabel().seq[tr] == label) {
+                    next[a.getTransitionsTo().seq[tr]] = true;
+                }
+            }
+            current = next;
+        }
+        for (int q = 0; q < a.getNumberOfStates(); q++) {
+            if (current[q] && a.getStateFinality(q) != 0) {
+                return 1;
+            }
+        }
+        return 0;
+    }
+
+    static void assertAutomatonEquals(Automaton expected, Automaton actual) {
+        assertEquals(expected.getNumberOfStates(), actual.getNumberOfStates());
+        assertEquals(expected.getNumberOfTransitions(), actual.getNumberOfTransitions());
+        assertEquals(expected.getInitialStates().seq[0], actual.getInitialStates().seq[0]);
+        for (int q = 0; q < expected.getNumberOfStates(); q++) {
+            assertEquals(expected.getStateFinality(q), actual.getStateFinality(q));
+            assertEquals(expected.getStatesTransitions().seq[q], actual.getStatesTransitions().seq[q]);
+        }
+        for (int tr = 0; tr < expected.getNumberOfTransitions(); tr++) {
+            assertEquals(expected.getTransitionsFrom().seq[tr], actual.getTransitionsFrom().seq[tr]);
+            assertEquals(expected.getTransitionsLabel().seq[tr], actual.getTransitionsLabel().seq[tr]);
+            assertEquals(expected.getTransitionsTo().seq[tr], actual.getTransitionsTo().seq[tr]);
+        }
+    }
 }
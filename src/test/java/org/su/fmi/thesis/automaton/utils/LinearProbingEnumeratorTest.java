@@ -0,0 +1,91 @@
+package org.su.fmi.thesis.automaton.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LinearProbingEnumeratorTest {
+
+    /***
+     * Int keys stored in insertion order. The code keeps only the low bits, so there are many equal codes.
+     */
+    private static class Keys implements Enumerable<Integer> {
+        private IntSequence keys = new IntSequence();
+
+        @Override
+        public boolean equal(Integer key, int index) {
+            return keys.seq[index] == key;
+        }
+
+        @Override
+        public long code(Integer key) {
+            return key & 0xFF;
+        }
+
+        @Override
+        public long codeByIndex(int index) {
+            return keys.seq[index] & 0xFF;
+        }
+
+        @Override
+        public int newObject(Integer key) {
+            keys.add(key);
+            return keys.length - 1;
+        }
+    }
+
+    @Test
+    void testAddGet() {
+        Random random = new Random(666L);
+        Keys keys = new Keys();
+        LinearProbingEnumerator<Integer> num = new LinearProbingEnumerator<>(keys, true);
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(5000);
+            Integer index = expected.get(key);
+            if (index == null) {
+                index = expected.size();
+                expected.put(key, index);
+            }
+            assertEquals((int) index, num.add(key));
+        }
+        assertEquals(expected.size(), num.getNumberOfObjects());
+        for (int key = -100; key < 5100; key++) {
+            assertEquals((int) expected.getOrDefault(key, -1), num.get(key));
+        }
+
+        num.reset();
+        for (int key = 0; key < 5000; key++) {
+            assertEquals(-1, num.get(key));
+        }
+    }
+
+    @Test
+    void testDelete() {
+        Random random = new Random(666L);
+        Keys keys = new Keys();
+        LinearProbingEnumerator<Integer> num = new LinearProbingEnumerator<>(keys);
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            int key = random.nextInt(2000);
+            if (random.nextBoolean()) {
+                int index = num.add(key);
+                expected.putIfAbsent(key, index);
+                assertEquals((int) expected.get(key), index);
+            } else {
+                num.delete(key);
+                expected.remove(key);
+            }
+            if (i % 100 == 0) {
+                for (int k = 0; k < 2000; k++) {
+                    assertEquals((int) expected.getOrDefault(k, -1), num.get(k));
+                }
+            }
+        }
+        assertEquals(expected.size(), num.getNumberOfObjects());
+    }
+}
@@ -0,0 +1,85 @@
+package org.su.fmi.thesis.clustering;
+
+import org.su.fmi.thesis.clustering.distances.Distance;
+import org.su.fmi.thesis.clustering.distances.MetricDistance;
+import org.su.fmi.thesis.clustering.model.Vectors;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/***
+ * Gaussian blobs around random centers and the assertions on the clusterings of vectors.
+ */
+class Blobs {
+
+    /***
+     * N vectors around K random centers in [0, 20)^D with unit gaussian noise and weights 1, 2 or 3.
+     */
+    static Vectors blobs(Random random, int N, int D, int K) {
+        double[][] centers = new double[K][D];
+        for (double[] center : centers) {
+            for (int d = 0; d < D; d++) {
+                center[d] = 20 * random.nextDouble();
+            }
+        }
+        double[][] vectors = new double[N][D];
+        int[] weights = new int[N];
+        for (int i = 0; i < N; i++) {
+            double[] center = centers[random.nextInt(K)];
+            for (int d = 0; d < D; d++) {
+                vectors[i][d] = center[d] + random.nextGaussian();
+            }
+            weights[i] = 1 + random.nextInt(3);
+        }
+        return new Vectors(vectors, weights);
+    }
+
+    /***
+     * Every vector is in the cluster of its closest centroid.
+     */
+    static void assertClosestCentroids(Vectors data, Distance distance, double[][] centroids, int[] clusters) {
+        for (int i = 0; i < data.size(); i++) {
+            double[] vector = data.get(i);
+            double closest = distance.distance(vector, centroids[clusters[i]]);
+            for (double[] centroid : centroids) {
+                assertTrue(closest <= distance.distance(vector, centroid) + 1e-9);
+            }
+        }
+    }
+
+    /***
+     * Every centroid is the weighted mean of its cluster.
+     */
+    static void assertWeightedMeans(Vectors data, double[][] centroids, int[] clusters) {
+        int K = centroids.length;
+        int D = data.dimension;
+        double[][] sums = new double[K][D];
+        long[] counts = new long[K];
+        for (int i = 0; i < data.size(); i++) {
+            for (int d = 0; d < D; d++) {
+                sums[clusters[i]][d] += data.values[data.offset(i) + d] * data.weights[i];
+            }
+            counts[clusters[i]] += data.weights[i];
+        }
+        for (int k = 0; k < K; k++) {
+            for (int d = 0; d < D; d++) {
+                assertEquals(sums[k][d] / counts[k], centroids[k][d], 1e-9);
+            }
+        }
+    }
+
+    /***
+     * The inertia is the sum of the weighted squared metric distances of the vectors to their centroids.
+     */
+    static void assertInertia(Vectors data, MetricDistance distance, double[][] centroids, int[] clusters,
+                              double inertia) {
+        double expected = 0;
+        for (int i = 0; i < data.size(); i++) {
+            double metric = distance.metric(data.get(i), centroids[clusters[i]]);
+            expected += data.weights[i] * metric * metric;
+        }
+        assertEquals(expected, inertia, 1e-6 * inertia);
+    }
+}
@@ -0,0 +1,27 @@
+package org.su.fmi.thesis.clustering;
+
+import org.su.fmi.thesis.clustering.metrics.IterationMetrics;
+import org.su.fmi.thesis.clustering.metrics.KMeansListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/***
+ * Keeps the metrics of every iteration and of the end of a fit.
+ */
+class IterationsRecorder implements KMeansListener {
+    final List<IterationMetrics> iterations = new ArrayList<>();
+    int numberOfIterations = -1;
+    double inertia = Double.NaN;
+
+    @Override
+    public void iteration(IterationMetrics metrics) {
+        iterations.add(metrics);
+    }
+
+    @Override
+    public void finished(int numberOfIterations, double inertia, long nanos) {
+        this.numberOfIterations = numberOfIterations;
+        this.inertia = inertia;
+    }
+}
@@ -2,13 +2,23 @@ package org.su.fmi.thesis.clustering;
 
 import org.junit.jupiter.api.Test;
 import org.su.fmi.thesis.clustering.distances.EuclideanDistance;
+import org.su.fmi.thesis.clustering.distances.MahalanobisDistance;
+import org.su.fmi.thesis.clustering.metrics.IterationMetrics;
 import org.su.fmi.thesis.clustering.model.Vectors;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.su.fmi.thesis.clustering.Blobs.assertClosestCentroids;
+import static org.su.fmi.thesis.clustering.Blobs.assertInertia;
+import static org.su.fmi.thesis.clustering.Blobs.assertWeightedMeans;
+import static org.su.fmi.thesis.clustering.Blobs.blobs;
+import static org.su.fmi.thesis.clustering.distances.Utils.covarianceMatrix;
+import static org.su.fmi.thesis.clustering.distances.Utils.inverseMatrix;
 
 class KMeansTest {
 
@@ -95,4 +105,151 @@ class KMeansTest {
         };
         assertCentroidsEquals(expectedCentroids, kMeans.centroids);
     }
+
+    @Test
+    void testHamerly() {
+        int N = 5000;
+        int K = 20;
+        Vectors data = blobs(new Random(666L), N, 8, K);
+
+        KMeans full = new KMeans(data, K, 666L, new EuclideanDistance());
+        full.fit();
+        KMeans hamerly = new KMeans(data, K, 666L, new EuclideanDistance(), Assignment.HAMERLY);
+        hamerly.fit();
+
+        // the bounds skip distances, but not changes of clusters
+        assertTrue(Arrays.equals(full.clusters, hamerly.clusters));
+        for (int k = 0; k < K; k++) {
+            assertArrayEquals(full.centroids[k], hamerly.centroids[k], 1e-9);
+        }
+        assertEquals(-1, full.getNumberOfDistances());
+        assertTrue(hamerly.getNumberOfDistances() < 2L * N * K);
+    }
+
+    @Test
+    void testMahalanobis() {
+        Random random = new Random(666L);
+        int N = 2000;
+        int D = 4;
+        int K = 6;
+
+        double[][] vectors = new double[N][D];
+        int[] weights = new int[N];
+        for (int i = 0; i < N; i++) {
+            int center = random.nextInt(K);
+            for (int d = 0; d < D; d++) {
+                vectors[i][d] = (d + 1) * (10 * center + random.nextGaussian());
+            }
+            vectors[i][D - 1] += vectors[i][0];
+            weights[i] = 1 + random.nextInt(3);
+        }
+        Vectors data = new Vectors(vectors, weights);
+        MahalanobisDistance mahalanobis = new MahalanobisDistance(inverseMatrix(covarianceMatrix(vectors)));
+
+        KMeans kMeans = new KMeans(data, K, 666L, mahalanobis, Assignment.HAMERLY);
+        kMeans.fit();
+
+        // the centroids are the weighted means in the original space and every vector is in its closest cluster
+        assertClosestCentroids(data, mahalanobis, kMeans.centroids, kMeans.clusters);
+        assertWeightedMeans(data, kMeans.centroids, kMeans.clusters);
+        assertInertia(data, mahalanobis, kMeans.centroids, kMeans.clusters, kMeans.inertia);
+    }
+
+    @Test
+    void testInitialization() {
+        Random random = new Random(666L);
+        int N = 3000;
+        int D = 5;
+        int K = 12;
+
+        double[][] centers = new double[K][D];
+        for (int k = 0; k < K; k++) {
+            centers[k][k % D] = 100 * (k + 1);
+        }
+        double[][] vectors = new double[N][D];
+        int[] weights = new int[N];
+        for (int i = 0; i < N; i++) {
+            double[] center = centers[i % K];
+            for (int d = 0; d < D; d++) {
+                vectors[i][d] = center[d] + random.nextGaussian();
+            }
+            weights[i] = 1 + random.nextInt(3);
+        }
+
+        for (Initialization initialization : Initialization.values()) {
+            KMeans kMeans = new KMeans(new Vectors(vectors, weights), K, 666L, new EuclideanDistance(),
+                    Assignment.HAMERLY, initialization);
+            kMeans.fit();
+            KMeans again = new KMeans(new Vectors(vectors, weights), K, 666L, new EuclideanDistance(),
+                    Assignment.HAMERLY, initialization);
+            again.fit();
+            assertArrayEquals(kMeans.clusters, again.clusters);
+
+            if (initialization == Initialization.FARTHEST_POINT) {
+                continue;
+            }
+            // the blobs are far apart, so every blob gets its own centroid
+            for (int i = 0; i < N; i++) {
+                assertEquals(kMeans.clusters[i % K], kMeans.clusters[i]);
+            }
+
+            // if N == K, then the centroids should be the N points
+            double[][] points = Arrays.copyOf(vectors, K);
+            int[] ones = new int[K];
+            Arrays.fill(ones, 1);
+            KMeans kMeansPoints = new KMeans(new Vectors(points, ones), K, 666L,
+                    new EuclideanDistance(), Assignment.FULL, initialization);
+            kMeansPoints.fit();
+            assertCentroidsEquals(points, kMeansPoints.centroids);
+        }
+    }
+
+    @Test
+    void testListener() {
+        Random random = new Random(666L);
+        int N = 2000;
+        int D = 3;
+        int K = 8;
+
+        double[][] vectors = new double[N][D];
+        int[] weights = new int[N];
+        for (int i = 0; i < N; i++) {
+            for (int d = 0; d < D; d++) {
+                vectors[i][d] = random.nextGaussian();
+            }
+            weights[i] = 1;
+        }
+
+        for (Assignment assignment : Assignment.values()) {
+            IterationsRecorder recorder = new IterationsRecorder();
+            KMeans kMeans = new KMeans(new Vectors(vectors, weights), K, 666L, new EuclideanDistance(), assignment);
+            kMeans.setListener(recorder);
+            kMeans.fit();
+
+            List<IterationMetrics> iterations = recorder.iterations;
+            assertEquals(kMeans.getNumberOfIterations() + 1, iterations.size());
+            assertEquals(kMeans.getNumberOfIterations(), recorder.numberOfIterations);
+            assertEquals(kMeans.inertia, recorder.inertia);
+            assertEquals(N, iterations.get(0).changes);
+            assertEquals(0, iterations.get(iterations.size() - 1).changes);
+            assertEquals(kMeans.inertia, iterations.get(iterations.size() - 1).inertia, 1e-9);
+            for (int i = 0; i < iterations.size(); i++) {
+                IterationMetrics metrics = iterations.get(i);
+                assertEquals(i, metrics.iteration);
+                assertTrue(metrics.assignmentNanos > 0);
+                assertTrue(i == 0 ? metrics.initializationNanos > 0 : metrics.updateNanos > 0);
+                if (assignment == Assignment.FULL) {
+                    assertEquals((long) N * K, metrics.distances);
+                    assertEquals(0, metrics.prunedDistances);
+                } else if (i > 0) {
+                    // the centroid to centroid distances and the distances to the assigned centroids
+                    assertTrue(metrics.distances + metrics.prunedDistances >= (long) N * K);
+                    assertTrue(metrics.distances + metrics.prunedDistances <= (long) N * K + N + K * K);
+                }
+            }
+            if (assignment == Assignment.HAMERLY) {
+                assertTrue(iterations.get(iterations.size() - 1).prunedDistances > 0);
+            }
+        }
+    }
 }
@@ -0,0 +1,49 @@
+package org.su.fmi.thesis.clustering;
+
+import org.junit.jupiter.api.Test;
+import org.su.fmi.thesis.clustering.distances.EuclideanDistance;
+import org.su.fmi.thesis.clustering.metrics.IterationMetrics;
+import org.su.fmi.thesis.clustering.model.Vectors;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.su.fmi.thesis.clustering.Blobs.assertClosestCentroids;
+import static org.su.fmi.thesis.clustering.Blobs.assertInertia;
+import static org.su.fmi.thesis.clustering.Blobs.blobs;
+
+class MiniBatchKMeansTest {
+
+    @Test
+    void testInertia() {
+        int K = 10;
+        Vectors data = blobs(new Random(666L), 20000, 8, K);
+        EuclideanDistance distance = new EuclideanDistance();
+
+        KMeans full = new KMeans(data, K, 666L, distance);
+        full.fit();
+        MiniBatchKMeans miniBatch = new MiniBatchKMeans(data, K, 666L, distance, 256);
+        IterationsRecorder recorder = new IterationsRecorder();
+        miniBatch.setListener(recorder);
+        miniBatch.fit();
+
+        // the batches stop early and lose little against the full fit
+        assertTrue(miniBatch.getNumberOfIterations() < MiniBatchKMeans.DEFAULT_MAX_ITERATIONS);
+        assertTrue(miniBatch.inertia < 1.05 * full.inertia);
+        // the final pass assigns every vector to the last centroids
+        assertClosestCentroids(data, distance, miniBatch.centroids, miniBatch.clusters);
+        assertInertia(data, distance, miniBatch.centroids, miniBatch.clusters, miniBatch.inertia);
+
+        List<IterationMetrics> iterations = recorder.iterations;
+        // the initialization and then one iteration per batch
+        assertEquals(miniBatch.getNumberOfIterations() + 1, iterations.size());
+        assertTrue(iterations.get(0).initializationNanos > 0);
+        for (int b = 1; b < iterations.size(); b++) {
+            assertEquals(b, iterations.get(b).iteration);
+            assertEquals(256L * K, iterations.get(b).distances);
+            assertTrue(iterations.get(b).changes <= 256);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.su.fmi.thesis.clustering;
+
+import org.junit.jupiter.api.Test;
+import org.su.fmi.thesis.clustering.distances.EuclideanDistance;
+import org.su.fmi.thesis.clustering.distances.MahalanobisDistance;
+import org.su.fmi.thesis.clustering.metrics.IterationMetrics;
+import org.su.fmi.thesis.clustering.model.InMemoryVectorStream;
+import org.su.fmi.thesis.clustering.model.Vectors;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.su.fmi.thesis.clustering.Blobs.assertClosestCentroids;
+import static org.su.fmi.thesis.clustering.Blobs.assertInertia;
+import static org.su.fmi.thesis.clustering.Blobs.assertWeightedMeans;
+import static org.su.fmi.thesis.clustering.Blobs.blobs;
+import static org.su.fmi.thesis.clustering.distances.Utils.covarianceMatrix;
+import static org.su.fmi.thesis.clustering.distances.Utils.inverseMatrix;
+
+class StreamingKMeansTest {
+
+    @Test
+    void testFit() throws IOException {
+        int N = 10000;
+        int K = 8;
+        Vectors data = blobs(new Random(666L), N, 6, K);
+        EuclideanDistance distance = new EuclideanDistance();
+
+        // chunks which do not divide N
+        StreamingKMeans kMeans = new StreamingKMeans(new InMemoryVectorStream(data, 999), K, 666L, distance);
+        kMeans.setSampleSize(1000);
+        IterationsRecorder recorder = new IterationsRecorder();
+        kMeans.setListener(recorder);
+        kMeans.fit();
+        assertTrue(kMeans.getNumberOfIterations() < StreamingKMeans.DEFAULT_MAX_ITERATIONS);
+
+        int[] clusters = new int[N];
+        int[] n = new int[1];
+        kMeans.assign(cluster -> clusters[n[0]++] = cluster);
+        assertEquals(N, n[0]);
+
+        // converged, so the centroids are the weighted means of the clusters of the closest centroids
+        assertClosestCentroids(data, distance, kMeans.centroids, clusters);
+        assertWeightedMeans(data, kMeans.centroids, clusters);
+        // the inertia before the last pass, which has not moved the centroids
+        assertInertia(data, distance, kMeans.centroids, clusters, kMeans.inertia);
+
+        List<IterationMetrics> iterations = recorder.iterations;
+        // the initialization and then one iteration per pass, the last pass has the final inertia
+        assertEquals(kMeans.getNumberOfIterations() + 1, iterations.size());
+        for (int pass = 1; pass < iterations.size(); pass++) {
+            assertEquals((long) N * K, iterations.get(pass).distances);
+            assertEquals(-1, iterations.get(pass).changes);
+        }
+        assertEquals(kMeans.inertia, iterations.get(iterations.size() - 1).inertia);
+    }
+
+    @Test
+    void testMahalanobis() throws IOException {
+        int N = 5000;
+        int K = 5;
+        Vectors data = blobs(new Random(666L), N, 4, K);
+        MahalanobisDistance mahalanobis = new MahalanobisDistance(inverseMatrix(covarianceMatrix(data)));
+
+        // the full chunks and the shorter last chunk are whitened into their own buffers
+        StreamingKMeans kMeans = new StreamingKMeans(new InMemoryVectorStream(data, 999), K, 666L, mahalanobis);
+        kMeans.setSampleSize(1000);
+        kMeans.fit();
+
+        int[] clusters = new int[N];
+        int[] n = new int[1];
+        kMeans.assign(cluster -> clusters[n[0]++] = cluster);
+
+        assertClosestCentroids(data, mahalanobis, kMeans.centroids, clusters);
+        assertWeightedMeans(data, kMeans.centroids, clusters);
+        assertInertia(data, mahalanobis, kMeans.centroids, clusters, kMeans.inertia);
+    }
+}
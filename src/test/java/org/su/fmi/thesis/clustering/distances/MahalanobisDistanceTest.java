@@ -1,8 +1,11 @@
 package org.su.fmi.thesis.clustering.distances;
 
 import org.junit.jupiter.api.Test;
+import org.su.fmi.thesis.clustering.model.Vectors;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.su.fmi.thesis.clustering.distances.Utils.covarianceMatrix;
 import static org.su.fmi.thesis.clustering.distances.Utils.inverseMatrix;
 
@@ -30,4 +33,52 @@ class MahalanobisDistanceTest {
         y = new double[]{0, 1, 0};
         assertEquals(1.73, mahalanobis.distance(x, y), 0.01);
     }
+
+    @Test
+    void test_flat_distance() {
+        double[][] vectors = new double[][]{{64, 580, 29}, {66, 570, 33}, {68, 590, 37}, {69, 660, 46}, {73, 600, 55}};
+        Vectors data = new Vectors(vectors, new int[]{1, 1, 1, 1, 1});
+
+        Distance[] distances = new Distance[]{
+                new EuclideanDistance(),
+                new StandardizedEuclideanDistance(data),
+                new MahalanobisDistance(inverseMatrix(covarianceMatrix(data.values, data.dimension, null)))
+        };
+        for (Distance distance : distances) {
+            for (int i = 0; i < vectors.length; i++) {
+                for (int j = 0; j < vectors.length; j++) {
+                    assertEquals(
+                            distance.distance(vectors[i], vectors[j]),
+                            distance.distance(data.values, data.offset(i), data.values, data.offset(j), data.dimension),
+                            1e-9
+                    );
+                }
+            }
+        }
+        Distance mahalanobis = distances[2];
+        assertThrows(RuntimeException.class, () -> mahalanobis.distance(data.values, 0, data.values, 3, 2));
+    }
+
+    @Test
+    void test_whiten() {
+        double[][] vectors = new double[][]{{64, 580, 29}, {66, 570, 33}, {68, 590, 37}, {69, 660, 46}, {73, 600, 55}};
+        Vectors data = new Vectors(vectors, new int[]{1, 2, 3, 4, 5});
+        MahalanobisDistance mahalanobis = new MahalanobisDistance(inverseMatrix(covarianceMatrix(vectors)));
+
+        Vectors whitened = mahalanobis.whiten(data);
+        assertArrayEquals(data.weights, whitened.weights);
+        EuclideanDistance euclidean = new EuclideanDistance();
+        for (int i = 0; i < vectors.length; i++) {
+            for (int j = 0; j < vectors.length; j++) {
+                assertEquals(
+                        mahalanobis.distance(vectors[i], vectors[j]),
+                        euclidean.metric(whitened.get(i), whitened.get(j)),
+                        1e-9
+                );
+            }
+        }
+
+        mahalanobis.unwhiten(whitened.values);
+        assertArrayEquals(data.values, whitened.values, 1e-9);
+    }
 }
@@ -3,17 +3,23 @@ package org.su.fmi.thesis.clustering.distances;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.su.fmi.thesis.clustering.distances.Utils.covarianceMatrix;
 import static org.su.fmi.thesis.clustering.distances.Utils.determinant;
 import static org.su.fmi.thesis.clustering.distances.Utils.inverseMatrix;
+import static org.su.fmi.thesis.clustering.distances.Utils.inverseOrNull;
 import static org.su.fmi.thesis.clustering.distances.Utils.minor;
 import static org.su.fmi.thesis.clustering.distances.Utils.multiply;
 import static org.su.fmi.thesis.clustering.distances.Utils.multiplyByScalar;
+import static org.su.fmi.thesis.clustering.distances.Utils.nonDegenerate;
 import static org.su.fmi.thesis.clustering.distances.Utils.sign;
 import static org.su.fmi.thesis.clustering.distances.Utils.subtract;
 import static org.su.fmi.thesis.clustering.distances.Utils.transpose;
+import static org.su.fmi.thesis.clustering.distances.Utils.variances;
 
 class UtilsTest {
 
@@ -392,4 +398,82 @@ class UtilsTest {
         };
         assertArrayEquals(expected, covarianceMatrix(vectors));
     }
+
+    @Test
+    void test_inverseMatrix_large() {
+        int n = 256;
+        Random random = new Random(666L);
+        double[][] a = new double[n][n];
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < n; ++j) {
+                a[i][j] = random.nextGaussian();
+            }
+            a[i][i] += n;
+        }
+
+        double[][] identity = new double[n][n];
+        for (int i = 0; i < n; ++i) {
+            identity[i][i] = 1;
+        }
+        assert2dArrayEquals(identity, multiply(a, inverseMatrix(a)));
+
+        // a triangular matrix, the determinant is the product of the diagonal
+        double[][] t = new double[n][n];
+        double expected = 1;
+        for (int i = 0; i < n; ++i) {
+            for (int j = i; j < n; ++j) {
+                t[i][j] = random.nextDouble();
+            }
+            t[i][i] = 1 + random.nextDouble();
+            expected *= t[i][i];
+        }
+        assertEquals(expected, determinant(t), expected * 1e-12);
+
+        // the hilbert matrix of size 16 is invertible, but its condition number is about 1e22
+        double[][] hilbert = new double[16][16];
+        for (int i = 0; i < 16; ++i) {
+            for (int j = 0; j < 16; ++j) {
+                hilbert[i][j] = 1d / (i + j + 1);
+            }
+        }
+        Assertions.assertFalse(nonDegenerate(hilbert));
+        Assertions.assertThrows(RuntimeException.class, () -> inverseMatrix(hilbert));
+        Assertions.assertNull(inverseOrNull(hilbert));
+        assert2dArrayEquals(inverseMatrix(t), inverseOrNull(t));
+    }
+
+    @Test
+    void test_weighted_covariance() {
+        // more vectors than one chunk, a vector with weight w must count as w copies of it
+        Random random = new Random(666L);
+        int n = 3000;
+        int dimension = 5;
+        double[] values = new double[n * dimension];
+        int[] weights = new int[n];
+        int total = 0;
+        for (int i = 0; i < n; ++i) {
+            for (int d = 0; d < dimension; ++d) {
+                values[i * dimension + d] = 1000 + (d + 1) * random.nextGaussian();
+            }
+            weights[i] = random.nextInt(4);
+            total += weights[i];
+        }
+        double[][] expanded = new double[total][];
+        for (int i = 0, j = 0; i < n; ++i) {
+            for (int w = 0; w < weights[i]; ++w) {
+                expanded[j++] = Arrays.copyOfRange(values, i * dimension, (i + 1) * dimension);
+            }
+        }
+
+        double[][] expected = covarianceMatrix(expanded);
+        double[][] actual = covarianceMatrix(values, dimension, weights);
+        for (int x = 0; x < dimension; ++x) {
+            assertArrayEquals(expected[x], actual[x], 1e-9);
+            assertEquals(expected[x][x], variances(values, dimension, weights)[x], 1e-9);
+        }
+        assertEquals(25, expected[4][4], 1);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> covarianceMatrix(new double[0], 0, null));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> variances(new double[0], 0, null));
+    }
 }
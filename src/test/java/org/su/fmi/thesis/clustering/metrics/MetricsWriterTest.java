@@ -0,0 +1,57 @@
+package org.su.fmi.thesis.clustering.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsWriterTest {
+
+    private static final IterationMetrics METRICS = new IterationMetrics(
+            3, 0, 1500, 2500, 42, 12.5, 1000, 600, -1
+    );
+
+    @Test
+    void testCsv() throws IOException {
+        StringWriter out = new StringWriter();
+        try (CsvMetricsWriter writer = new CsvMetricsWriter(out)) {
+            writer.iteration(METRICS);
+            writer.finished(3, 12.5, 10000);
+        }
+        assertEquals(
+                "iteration,initializationNanos,updateNanos,assignmentNanos,changes,inertia,"
+                        + "distances,prunedDistances,allocatedBytes\n"
+                        + "3,0,1500,2500,42,12.5,1000,600,-1\n",
+                out.toString()
+        );
+    }
+
+    @Test
+    void testJsonLines() throws IOException {
+        StringWriter out = new StringWriter();
+        try (JsonLinesMetricsWriter writer = new JsonLinesMetricsWriter(out)) {
+            writer.iteration(METRICS);
+            writer.finished(3, Double.NaN, 10000);
+        }
+        assertEquals(
+                "{\"event\":\"iteration\",\"iteration\":3,\"initializationNanos\":0,\"updateNanos\":1500,"
+                        + "\"assignmentNanos\":2500,\"changes\":42,\"inertia\":12.5,\"distances\":1000,"
+                        + "\"prunedDistances\":600,\"allocatedBytes\":-1}\n"
+                        + "{\"event\":\"finished\",\"iterations\":3,\"inertia\":null,\"nanos\":10000}\n",
+                out.toString()
+        );
+    }
+
+    @Test
+    void testAllocations() {
+        long before = Allocations.allocatedBytes();
+        long[] allocated = new long[1 << 16];
+        long after = Allocations.allocatedBytes();
+        if (before >= 0) {
+            assertTrue(after - before >= 8L * allocated.length);
+        }
+    }
+}
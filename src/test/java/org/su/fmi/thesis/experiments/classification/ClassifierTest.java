@@ -0,0 +1,65 @@
+package org.su.fmi.thesis.experiments.classification;
+
+import org.junit.jupiter.api.Test;
+import org.su.fmi.thesis.automaton.Automaton;
+import org.su.fmi.thesis.automaton.utils.IntSequence;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ClassifierTest {
+
+    @Test
+    void test() {
+        // words over {0, 1} with an even number of ones
+        Automaton a = new Automaton();
+        a.addInitialState(0);
+        a.addTransition(0, 0, 0);
+        a.addTransition(0, 1, 1);
+        a.addTransition(1, 0, 1);
+        a.addTransition(1, 1, 0);
+        a.setStateFinality(0, 1);
+        a.sort();
+
+        Random random = new Random(666L);
+        EncodedWords words = new EncodedWords();
+        for (int i = 0; i < 10 * Classifier.CHUNK_SIZE + 17; i++) {
+            int[] word = new int[random.nextInt(20)];
+            for (int j = 0; j < word.length; j++) {
+                word[j] = random.nextInt(2);
+            }
+            words.add(random.nextInt(2), word);
+        }
+
+        Classification expected = Classifier.classify(a, words, 0, words.getNumberOfWords(), true);
+        Classification actual = Classifier.classify(a.compile(), words, true);
+
+        assertEquals(words.getNumberOfWords(), actual.getNumberOfWords());
+        assertEquals(expected.tp, actual.tp);
+        assertEquals(expected.tn, actual.tn);
+        assertEquals(expected.fp, actual.fp);
+        assertEquals(expected.fn, actual.fn);
+        assertSequenceEquals(expected.truePositives, actual.truePositives);
+        assertSequenceEquals(expected.trueNegatives, actual.trueNegatives);
+        assertSequenceEquals(expected.falsePositives, actual.falsePositives);
+        assertSequenceEquals(expected.falseNegatives, actual.falseNegatives);
+
+        for (int i = 0; i < expected.truePositives.length; i++) {
+            int word = expected.truePositives.seq[i];
+            int ones = 0;
+            for (int j = 0; j < words.getWordLength(word); j++) {
+                ones += words.symbols.seq[words.wordsSymbols.seq[word] + j];
+            }
+            assertEquals(0, ones % 2);
+            assertEquals(1, words.getWordLabel(word));
+        }
+    }
+
+    private static void assertSequenceEquals(IntSequence expected, IntSequence actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected.seq[i], actual.seq[i]);
+        }
+    }
+}
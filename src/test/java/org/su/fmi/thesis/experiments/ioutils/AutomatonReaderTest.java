@@ -0,0 +1,99 @@
+package org.su.fmi.thesis.experiments.ioutils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.su.fmi.thesis.automaton.Automaton;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AutomatonReaderTest {
+
+    private static File write(Path dir, String content) throws IOException {
+        File f = dir.resolve("automaton.txt").toFile();
+        Files.write(f.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return f;
+    }
+
+    @Test
+    void testRead(@TempDir Path dir) throws IOException {
+        Automaton a = AutomatonReader.read(write(dir, "0\r\n2 3\r\n0 97 1\r\n1\t-5  2\n\n2 98 3"));
+
+        assertEquals(0, a.getInitialStates().seq[0]);
+        assertEquals(4, a.getNumberOfStates());
+        assertEquals(3, a.getNumberOfTransitions());
+        assertEquals(0, a.getStateFinality(1));
+        assertEquals(1, a.getStateFinality(2));
+        assertEquals(1, a.getStateFinality(3));
+        assertEquals(-5, a.getTransitionsLabel().seq[1]);
+        assertEquals(3, a.getTransitionsTo().seq[2]);
+    }
+
+    @Test
+    void testReadLarge(@TempDir Path dir) throws IOException {
+        Random random = new Random(666L);
+        int n = 100000;
+        int[][] transitions = new int[n][3];
+        StringBuilder sb = new StringBuilder("0\n1 2\n");
+        for (int[] tr : transitions) {
+            tr[0] = random.nextInt(1000);
+            tr[1] = random.nextInt(100);
+            tr[2] = random.nextInt(1000);
+            sb.append(tr[0]).append(' ').append(tr[1]).append(' ').append(tr[2]).append('\n');
+        }
+        Automaton a = AutomatonReader.read(write(dir, sb.toString()));
+
+        assertEquals(n, a.getNumberOfTransitions());
+        for (int i = 0; i < n; i++) {
+            assertEquals(transitions[i][0], a.getTransitionsFrom().seq[i]);
+            assertEquals(transitions[i][1], a.getTransitionsLabel().seq[i]);
+            assertEquals(transitions[i][2], a.getTransitionsTo().seq[i]);
+        }
+    }
+
+    @Test
+    void testMalformed(@TempDir Path dir) throws IOException {
+        File f = write(dir, "0\n1\n0 97 1\n1 9x 0\n");
+        MalformedLineException e = assertThrows(MalformedLineException.class, () -> AutomatonReader.read(f));
+        assertEquals(4, e.getLineNumber());
+
+        File g = write(dir, "0\n1\n0 97\n");
+        assertEquals(3, assertThrows(MalformedLineException.class, () -> AutomatonReader.read(g)).getLineNumber());
+
+        File h = write(dir, "0\n1\n0 97 1 2\n");
+        assertEquals(3, assertThrows(MalformedLineException.class, () -> AutomatonReader.read(h)).getLineNumber());
+
+        File k = write(dir, "0\n1\n0 3000000000 1\n");
+        assertEquals(3, assertThrows(MalformedLineException.class, () -> AutomatonReader.read(k)).getLineNumber());
+    }
+
+    @Test
+    void testLongLines(@TempDir Path dir) throws IOException {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < 200000; i++) {
+            word.append((char) ('a' + i % 26));
+        }
+        File f = dir.resolve("words.tsv").toFile();
+        Files.write(f.toPath(), ("1\t" + word + "\n0\tя\n").getBytes(StandardCharsets.UTF_8));
+
+        try (LineReader reader = new LineReader(f)) {
+            assertTrue(reader.next());
+            int tab = reader.indexOf((byte) '\t', reader.start());
+            assertEquals(1, reader.parseInt(reader.start(), tab));
+            assertEquals(word.toString(), reader.string(tab + 1, reader.end()));
+            assertTrue(reader.next());
+            tab = reader.indexOf((byte) '\t', reader.start());
+            assertEquals("я", reader.string(tab + 1, reader.end()));
+            assertEquals(2, reader.getLineNumber());
+            assertTrue(!reader.next());
+        }
+    }
+}
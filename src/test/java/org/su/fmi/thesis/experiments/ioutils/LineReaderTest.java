@@ -0,0 +1,69 @@
+package org.su.fmi.thesis.experiments.ioutils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LineReaderTest {
+
+    @Test
+    void testNextDouble(@TempDir Path dir) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        String[] fixed = {
+                "0", "-0", "+0", "0.0", "-0.0", "1", "-1", "1.", ".5", "-.5", "+1.25", "007", "0.000123",
+                "1e0", "1E+2", "2e-3", "-1.5e22", "1e23", "1e-22", "1e-23", "123456789012345", "1234567890123456",
+                "0.30000000000000004", "1.7976931348623157E308", "4.9E-324", "1e400", "1e-400", "0e999",
+                "NaN", "-Infinity", "Infinity", "0x1p3", "1d", "2.5f"
+        };
+        for (String token : fixed) {
+            tokens.add(token);
+        }
+        Random random = new Random(666L);
+        for (int i = 0; i < 10000; i++) {
+            double value = random.nextGaussian() * Math.pow(10, random.nextInt(40) - 20);
+            tokens.add(String.valueOf(value));
+            tokens.add(String.format(Locale.ROOT, "%." + random.nextInt(16) + "f", value));
+            tokens.add(String.format(Locale.ROOT, "%." + random.nextInt(16) + "e", value));
+        }
+
+        File f = dir.resolve("numbers.txt").toFile();
+        Files.write(f.toPath(), String.join(" \t", tokens).getBytes(StandardCharsets.UTF_8));
+        try (LineReader reader = new LineReader(f)) {
+            assertTrue(reader.next());
+            for (String token : tokens) {
+                double expected = Double.parseDouble(token);
+                double actual = reader.nextDouble();
+                // bitwise, so that -0.0 and 0.0 differ
+                assertEquals(Double.doubleToLongBits(expected), Double.doubleToLongBits(actual), token);
+            }
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    void testMalformedDouble(@TempDir Path dir) throws IOException {
+        File f = dir.resolve("numbers.txt").toFile();
+        String[] tokens = {"-", ".", "1e", "1e+", "1.2.3", "1-2", "abc", "--1"};
+        Files.write(f.toPath(), String.join(" ", tokens).getBytes(StandardCharsets.UTF_8));
+        try (LineReader reader = new LineReader(f)) {
+            assertTrue(reader.next());
+            for (String token : tokens) {
+                assertThrows(MalformedLineException.class, reader::nextDouble, token);
+            }
+        }
+    }
+}
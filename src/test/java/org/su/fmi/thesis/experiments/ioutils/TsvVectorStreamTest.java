@@ -0,0 +1,56 @@
+package org.su.fmi.thesis.experiments.ioutils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.su.fmi.thesis.clustering.model.Vectors;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TsvVectorStreamTest {
+
+    private static File write(Path dir, String content) throws IOException {
+        File f = dir.resolve("vectors.tsv").toFile();
+        Files.write(f.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return f;
+    }
+
+    @Test
+    void testChunks(@TempDir Path dir) throws IOException {
+        File f = write(dir, "1\t0.5 1\n2\t-1.5 2e3\r\n\n3\t3 4\n4\t5 6\n5\t7 8\n");
+        try (TsvVectorStream stream = new TsvVectorStream(f, 2, 2)) {
+            for (int pass = 0; pass < 2; pass++) {
+                stream.rewind();
+                Vectors chunk = stream.next();
+                assertArrayEquals(new int[]{1, 2}, chunk.weights);
+                assertArrayEquals(new double[]{0.5, 1, -1.5, 2000}, chunk.values);
+                chunk = stream.next();
+                assertArrayEquals(new int[]{3, 4}, chunk.weights);
+                assertArrayEquals(new double[]{3, 4, 5, 6}, chunk.values);
+                chunk = stream.next();
+                assertEquals(1, chunk.size());
+                assertArrayEquals(new double[]{7, 8}, chunk.values);
+                assertNull(stream.next());
+            }
+        }
+    }
+
+    @Test
+    void testMalformed(@TempDir Path dir) throws IOException {
+        try (TsvVectorStream stream = new TsvVectorStream(write(dir, "1\t0.5 1\n2\t1.5\n"), 2, 8)) {
+            MalformedLineException e = assertThrows(MalformedLineException.class, stream::next);
+            assertEquals(2, e.getLineNumber());
+        }
+        try (TsvVectorStream stream = new TsvVectorStream(write(dir, "1\t0.5 x\n"), 2, 8)) {
+            assertThrows(MalformedLineException.class, stream::next);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.su.fmi.thesis.experiments.ioutils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.su.fmi.thesis.clustering.model.InMemoryVectorStream;
+import org.su.fmi.thesis.clustering.model.VectorStream;
+import org.su.fmi.thesis.clustering.model.Vectors;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VectorsFileTest {
+
+    private static Vectors random(int n, int dimension) {
+        Random random = new Random(666L);
+        double[] values = new double[n * dimension];
+        int[] weights = new int[n];
+        for (int i = 0; i < n; i++) {
+            for (int d = 0; d < dimension; d++) {
+                values[i * dimension + d] = random.nextGaussian();
+            }
+            weights[i] = random.nextInt(100);
+        }
+        return new Vectors(values, dimension, weights);
+    }
+
+    @Test
+    void testWriteRead(@TempDir Path dir) throws IOException {
+        Vectors vectors = random(1000, 7);
+        for (VectorsFile.DataType type : VectorsFile.DataType.values()) {
+            File f = dir.resolve("vectors." + type).toFile();
+            assertEquals(1000, VectorsFile.write(new InMemoryVectorStream(vectors, 300), f, type));
+            assertTrue(VectorsFile.isVectorsFile(f));
+
+            VectorsFile vectorsFile = VectorsFile.open(f);
+            assertEquals(1000, vectorsFile.getNumberOfVectors());
+            assertEquals(7, vectorsFile.getDimension());
+            assertEquals(type, vectorsFile.getType());
+
+            double[] expected = vectors.values.clone();
+            if (type == VectorsFile.DataType.FLOAT32) {
+                for (int j = 0; j < expected.length; j++) {
+                    expected[j] = (float) expected[j];
+                }
+            }
+            Vectors read = vectorsFile.read();
+            assertArrayEquals(vectors.weights, read.weights);
+            assertArrayEquals(expected, read.values);
+
+            try (VectorStream stream = vectorsFile.stream(64)) {
+                stream.rewind();
+                int n = 0;
+                Vectors chunk;
+                while ((chunk = stream.next()) != null) {
+                    for (int i = 0; i < chunk.size(); i++, n++) {
+                        assertEquals(vectors.weights[n], chunk.weights[i]);
+                        for (int d = 0; d < 7; d++) {
+                            assertEquals(expected[n * 7 + d], chunk.values[i * 7 + d]);
+                        }
+                    }
+                }
+                assertEquals(1000, n);
+                stream.rewind();
+                assertEquals(64, stream.next().size());
+            }
+        }
+    }
+
+    @Test
+    void testWindows(@TempDir Path dir) throws IOException {
+        Vectors vectors = random(100, 3);
+        File f = dir.resolve("vectors.vec").toFile();
+        VectorsFile.write(new InMemoryVectorStream(vectors, 100), f, VectorsFile.DataType.FLOAT64);
+        VectorsFile vectorsFile = VectorsFile.open(f);
+        try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+            // 7 vectors of 24 bytes per window, the ranges below cross the window boundaries
+            VectorsMapping mapping = new VectorsMapping(vectorsFile, channel, 7 * 24 + 5);
+            for (int first : new int[]{0, 5, 13, 60}) {
+                int n = 40;
+                Vectors read = new Vectors(new double[n * 3], 3, new int[n]);
+                mapping.read(first, n, read);
+                for (int i = 0; i < n; i++) {
+                    assertEquals(vectors.weights[first + i], read.weights[i]);
+                    assertArrayEquals(vectors.get(first + i), read.get(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testConvert(@TempDir Path dir) throws IOException {
+        File tsv = dir.resolve("vectors.tsv").toFile();
+        Files.write(tsv.toPath(), "1\t0.5 1\n2\t-1.5 2e3\n".getBytes(StandardCharsets.UTF_8));
+        assertFalse(VectorsFile.isVectorsFile(tsv));
+        File binary = dir.resolve("vectors.vec").toFile();
+        try (TsvVectorStream stream = new TsvVectorStream(tsv, 2, 1)) {
+            VectorsFile.write(stream, binary, VectorsFile.DataType.FLOAT64);
+        }
+
+        Vectors vectors = VectorsReader.parseVectors(binary, 2, 2);
+        assertArrayEquals(new int[]{1, 2}, vectors.weights);
+        assertArrayEquals(new double[]{0.5, 1, -1.5, 2000}, vectors.values);
+        assertArrayEquals(vectors.values, VectorsReader.parseVectors(tsv, 2, 2).values);
+        assertThrows(IOException.class, () -> VectorsReader.parseVectors(binary, 3, 2));
+
+        File empty = dir.resolve("empty.vec").toFile();
+        VectorsFile.write(new InMemoryVectorStream(new Vectors(new double[0], 3, new int[0]), 8), empty,
+                VectorsFile.DataType.FLOAT32);
+        try (VectorStream stream = VectorsFile.open(empty).stream(8)) {
+            assertNull(stream.next());
+        }
+    }
+}